@@ -1,36 +1,58 @@
 package graph;
 
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import visualization.Graphinator;
 
 import java.awt.Color;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-import static com.google.common.collect.Collections2.orderedPermutations;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 
 /**
  * Manages the vertex colorings. Colors are assigned a unique ID that starts at zero.
  */
 class ColorManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(ColorManager.class);
+    // The coloring thread stops after being idle this long so replaced graphs leave none behind
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 5;
 
     private final Graph graph;
 
     private final Random generator = new Random();
     private final List<Color> colors = new ArrayList<>();
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
-
-    private int maximumColor = -1;
+    private final ThreadPoolExecutor executorService = new ThreadPoolExecutor(1, 1,
+            THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("coloring-%d").setDaemon(true).build());
+
+    // Vertices changed since the last published coloring
+    private final Set<Vertex> pendingVertices = new HashSet<>();
+    // Vertices whose component was last colored without proving the coloring optimal
+    private final Set<Vertex> unprovenVertices = new HashSet<>();
+    // Incremented for every change so that coloring jobs can tell when they are out of date
+    private volatile long generation;
+
+    private volatile ColoringStrategy strategy = ColoringStrategy.EXACT;
+    private volatile ForkJoinPool coloringPool = ForkJoinPool.commonPool();
+    private volatile int maximumColor = -1;
+    private volatile boolean maximumColorOptimal = true;
 
     private static final double GOLDEN_RATIO_CONJUGATE = 0.618033988749895;
 
@@ -41,6 +63,7 @@ class ColorManager {
      */
     ColorManager(Graph graph) {
         this.graph = graph;
+        executorService.allowCoreThreadTimeOut(true);
         colors.add(Color.LIGHT_GRAY);
         colors.add(Color.RED);
         colors.add(Color.BLUE);
@@ -92,6 +115,54 @@ class ColorManager {
         return maximumColor + 1;
     }
 
+    /**
+     * Returns whether the number of colors is known to be the smallest possible. If not, it is
+     * only an upper bound.
+     *
+     * @return whether the number of colors is optimal
+     */
+    boolean isNumberOfColorsOptimal() {
+        return maximumColorOptimal;
+    }
+
+    /**
+     * Returns the strategy used to color the graph.
+     *
+     * @return the coloring strategy
+     */
+    ColoringStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the strategy used to color the graph. The new strategy is used from the next
+     * structural change onwards.
+     *
+     * @param strategy the coloring strategy
+     */
+    void setStrategy(ColoringStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Returns the pool that components are colored on.
+     *
+     * @return the coloring pool
+     */
+    ForkJoinPool getColoringPool() {
+        return coloringPool;
+    }
+
+    /**
+     * Sets the pool that components are colored on. Components are colored in parallel and large
+     * searches are split across the workers of the pool.
+     *
+     * @param coloringPool the coloring pool
+     */
+    void setColoringPool(ForkJoinPool coloringPool) {
+        this.coloringPool = coloringPool;
+    }
+
     private void resetColors() {
         setAllColors(-1);
     }
@@ -103,117 +174,276 @@ class ColorManager {
     }
 
     /**
-     * Assigns colors to the affected parts of the graph.
+     * Assigns colors to the affected parts of the graph. The coloring is calculated in the
+     * background and supersedes any coloring still being calculated for an earlier change, so only
+     * the latest structure of the graph is ever colored. A snapshot of the graph is only taken
+     * when a background coloring is needed, so repairing the coloring in place never takes one.
+     * Must be called from the event dispatch thread.
+     *
+     * @param structuralChange the change that requires recoloring
+     * @param snapshot supplies the structure of the graph at the time of the change
      */
-    void assignColors(StructuralChange structuralChange) {
-        maximumColor = 0;
+    void assignColors(StructuralChange structuralChange, Supplier<CompactGraph> snapshot) {
+        final long jobGeneration;
+        final Set<Vertex> verticesToColor;
+        synchronized (this) {
+            // The published coloring can only be repaired when no job is about to replace it
+            if (structuralChange.isAdditive() && pendingVertices.isEmpty() &&
+                    repair(structuralChange.getConnectionsAdded())) {
+                return;
+            }
 
-        if (graph.numberOfConnections() == 0) {
-            setAllColors(0);
-            return;
+            jobGeneration = ++generation;
+            pendingVertices.addAll(structuralChange.getVerticesChanged());
+            maximumColor = 0;
+
+            if (graph.numberOfConnections() == 0) {
+                // Every vertex is isolated so there is nothing left for a background job to do
+                setAllColors(0);
+                pendingVertices.clear();
+                unprovenVertices.clear();
+                maximumColorOptimal = true;
+                return;
+            }
+
+            // Vertices changed since the last published coloring are colored again in case the
+            // job that was going to color them gets superseded
+            verticesToColor = new HashSet<>(pendingVertices);
         }
 
-        final Runnable colorRunnable = () -> {
-            final Set<Vertex> changedVertices = new HashSet<>();
-            changedVertices.addAll(structuralChange.getVerticesChanged());
+        final CompactGraph graphSnapshot = snapshot.get();
+        final ColoringStrategy strategy = this.strategy;
+        final ForkJoinPool pool = coloringPool;
+        final BooleanSupplier superseded = () -> generation != jobGeneration;
+        executorService.submit(() -> color(graphSnapshot, verticesToColor, strategy, pool,
+                superseded));
+    }
 
-            LOGGER.info("Changed vertices: " + changedVertices);
+    private void color(CompactGraph snapshot, Set<Vertex> changedVertices,
+            ColoringStrategy strategy, ForkJoinPool pool, BooleanSupplier superseded) {
+        if (superseded.getAsBoolean()) {
+            return;
+        }
 
-            final List<ConnectedComponent> connectedComponents = new ArrayList<>();
-            while (!changedVertices.isEmpty()) {
-                final Vertex startVertex = changedVertices.iterator().next();
-                final ConnectedComponent connectedComponent = ConnectedComponent.find(startVertex);
-                connectedComponents.add(connectedComponent);
+        LOGGER.debug("Coloring components of " + changedVertices.size() + " changed vertices");
+
+        final boolean[] visited = new boolean[snapshot.numberOfVertices()];
+        final List<Vertex> removedVertices = new ArrayList<>();
+        final List<ComponentGraph> components = new ArrayList<>();
+        for (final Vertex changedVertex : changedVertices) {
+            final int startVertex = snapshot.indexOf(changedVertex);
+            if (startVertex < 0) {
+                removedVertices.add(changedVertex);
+            } else if (!visited[startVertex]) {
+                final ConnectedComponent connectedComponent = ConnectedComponent.find(snapshot,
+                        startVertex, visited);
+                components.add(new ComponentGraph(snapshot, connectedComponent.getIndices()));
+            }
+        }
 
-                for (final Vertex vertex : connectedComponent.getVertices()) {
-                    vertex.uncolor();
-                    changedVertices.remove(vertex);
+        synchronized (this) {
+            if (superseded.getAsBoolean()) {
+                return;
+            }
+            for (final ComponentGraph component : components) {
+                for (int v = 0; v < component.size(); v++) {
+                    component.getVertex(v).uncolor();
                 }
             }
+        }
+        Graphinator.redraw();
+
+        // Components are independent so they are colored in parallel on the workers of the pool
+        final List<Coloring> colorings;
+        try {
+            colorings = pool.invoke(ForkJoinTask.adapt(() -> components.parallelStream()
+                    .map(component -> {
+                        if (superseded.getAsBoolean()) {
+                            throw new CancellationException();
+                        }
+                        return strategy.color(component, superseded);
+                    })
+                    .collect(Collectors.toList())));
+        } catch (CancellationException e) {
+            return;
+        }
 
-            Graphinator.redraw();
-
-            for (final ConnectedComponent connectedComponent : connectedComponents) {
-                final Collection<List<Vertex>> vertexPermutations = orderedPermutations(
-                        connectedComponent.getVertices());
+        synchronized (this) {
+            if (superseded.getAsBoolean()) {
+                return;
+            }
 
-                int smallestColoring = Integer.MAX_VALUE;
-                ColorMap smallestColoringMap = null;
-                for (final List<Vertex> vertexOrdering : vertexPermutations) {
-                    final ColorMap colorMap = getColorMap(vertexOrdering);
-                    if (colorMap.getMaxColor() < smallestColoring) {
-                        smallestColoring = colorMap.getMaxColor();
-                        smallestColoringMap = colorMap;
+            for (int c = 0; c < components.size(); c++) {
+                final ComponentGraph component = components.get(c);
+                final Coloring coloring = colorings.get(c);
+                for (int v = 0; v < component.size(); v++) {
+                    final Vertex vertex = component.getVertex(v);
+                    vertex.setColor(coloring.getColor(v));
+                    if (coloring.isOptimal()) {
+                        unprovenVertices.remove(vertex);
+                    } else {
+                        unprovenVertices.add(vertex);
                     }
                 }
+            }
+            unprovenVertices.removeAll(removedVertices);
+            pendingVertices.clear();
 
-                if (smallestColoringMap != null) {
-                    smallestColoringMap.assignColors();
-                }
+            calculateMaximumColor(snapshot.getVertices());
+        }
+
+        LOGGER.debug("Finished color calculation");
+        Graphinator.redraw();
+    }
+
+    /**
+     * Repairs the current coloring after the given connections were added without changing the
+     * number of colors. A conflicting endpoint takes a color that none of its neighbors use, or
+     * otherwise gets one by swapping the two colors along Kempe chains. The colors are limited to
+     * those already used around the endpoints so the repaired coloring is optimal whenever the
+     * coloring it was repaired from was.
+     *
+     * @param connectionsAdded the connections that were added
+     *
+     * @return whether every conflict was repaired
+     */
+    private boolean repair(Set<Connection> connectionsAdded) {
+        boolean proofsChanged = false;
+        for (final Connection connection : connectionsAdded) {
+            final Vertex start = connection.getStart();
+            final Vertex end = connection.getEnd();
+            if (start.getColor() < 0 || end.getColor() < 0) {
+                return false;
+            }
+            if (start == end || start.getColor() != end.getColor()) {
+                continue;
             }
 
-            LOGGER.info("Finished color calculation");
+            final int numColors = Math.max(maximumAdjacentColor(start),
+                    maximumAdjacentColor(end)) + 1;
+            final Map<Vertex, Integer> recolored = new HashMap<>();
+            // The newer endpoint is recolored first so that the outcome does not depend on which
+            // direction of a connection is repaired first
+            final Vertex newer = start.getID() > end.getID() ? start : end;
+            final Vertex older = newer == start ? end : start;
+            if (!recolor(newer, numColors, recolored) && !recolor(older, numColors, recolored)) {
+                return false;
+            }
 
-            maximumColor = calculateMaximumColor();
-            Graphinator.redraw();
-        };
+            for (final Map.Entry<Vertex, Integer> entry : recolored.entrySet()) {
+                // A proven vertex shows that the graph needs more colors than its own color,
+                // which still holds if its color decreases
+                final Vertex vertex = entry.getKey();
+                if (entry.getValue() > vertex.getColor() && unprovenVertices.add(vertex)) {
+                    proofsChanged = true;
+                }
+                vertex.setColor(entry.getValue());
+            }
+        }
 
-        executorService.submit(colorRunnable);
+        if (proofsChanged) {
+            calculateMaximumColor(graph.getVertices());
+        }
+        return true;
     }
 
-    private int calculateMaximumColor() {
-        int maxColor = 0;
-        for (final Vertex vertex : graph.getVertices()) {
-            maxColor = Math.max(vertex.getColor(), maxColor);
+    private int maximumAdjacentColor(Vertex vertex) {
+        int maxColor = vertex.getColor();
+        for (final Vertex neighbor : graph.getConnectionManager().getAdjacentVertices(vertex)) {
+            maxColor = Math.max(maxColor, neighbor.getColor());
         }
         return maxColor;
     }
 
-    private ColorMap getColorMap(List<Vertex> vertexOrdering) {
-        final ColorMap colorMap = new ColorMap();
-
-        for (final Vertex vertex : vertexOrdering) {
-            final Set<Integer> neighborColors = new HashSet<>();
-            for (final Vertex neighbor : vertex.getNeighbors()) {
-                final Integer neighborColor = colorMap.getColor(neighbor);
-                if (neighborColor != null) {
-                    neighborColors.add(neighborColor);
-                }
+    /**
+     * Finds a new color for the given vertex below the given number of colors that none of its
+     * neighbors use, swapping colors along Kempe chains if needed.
+     *
+     * @param vertex the vertex to recolor
+     * @param numColors the number of colors that may be used
+     * @param recolored the new color of every recolored vertex
+     *
+     * @return whether the vertex could be recolored
+     */
+    private boolean recolor(Vertex vertex, int numColors, Map<Vertex, Integer> recolored) {
+        final ConnectionManager connectionManager = graph.getConnectionManager();
+        final boolean[] used = new boolean[numColors];
+        for (final Vertex neighbor : connectionManager.getAdjacentVertices(vertex)) {
+            if (neighbor.getColor() >= 0 && neighbor.getColor() < numColors) {
+                used[neighbor.getColor()] = true;
             }
-
-            int color = 0;
-            while (neighborColors.contains(color)) {
-                color++;
+        }
+        for (int color = 0; color < numColors; color++) {
+            if (!used[color]) {
+                recolored.put(vertex, color);
+                return true;
             }
-            colorMap.setColor(vertex, color);
         }
 
-        return colorMap;
-    }
-
-    class ColorMap {
-        int maxColor = 0;
-        final Map<Vertex, Integer> colorMapping = new HashMap<>();
+        // Swapping the colors of the chains through the neighbors using the other color frees
+        // that color for the vertex, unless a chain also reaches a neighbor using its color
+        final int color = vertex.getColor();
+        for (int other = 0; other < numColors; other++) {
+            if (other == color) {
+                continue;
+            }
 
-        public Integer getColor(Vertex v) {
-            return colorMapping.get(v);
-        }
+            final Set<Vertex> chains = new HashSet<>();
+            final Deque<Vertex> queue = new ArrayDeque<>();
+            chains.add(vertex);
+            for (final Vertex neighbor : connectionManager.getAdjacentVertices(vertex)) {
+                if (neighbor.getColor() == other && chains.add(neighbor)) {
+                    queue.add(neighbor);
+                }
+            }
 
-        public void setColor(Vertex v, int color) {
-            colorMapping.put(v, color);
-            if (color > maxColor) {
-                maxColor = color;
+            boolean blocked = false;
+            while (!queue.isEmpty() && !blocked) {
+                for (final Vertex next : connectionManager.getAdjacentVertices(queue.poll())) {
+                    if (next == vertex || next.getColor() != color && next.getColor() != other) {
+                        continue;
+                    }
+                    if (next.getColor() == color && (connectionManager.verticesConnected(vertex,
+                            next) || connectionManager.verticesConnected(next, vertex))) {
+                        blocked = true;
+                        break;
+                    }
+                    if (chains.add(next)) {
+                        queue.add(next);
+                    }
+                }
             }
-        }
 
-        public void assignColors() {
-            for (final Map.Entry<Vertex, Integer> vertexAndColor : colorMapping.entrySet()) {
-                vertexAndColor.getKey().setColor(vertexAndColor.getValue());
+            if (!blocked) {
+                for (final Vertex chainVertex : chains) {
+                    recolored.put(chainVertex, chainVertex.getColor() == color ? other : color);
+                }
+                return true;
             }
         }
+        return false;
+    }
 
-        public int getMaxColor() {
-            return maxColor;
+    /**
+     * Calculates the largest color in the graph. The number of colors is optimal if a component
+     * using the largest color has an optimal coloring, because the graph then needs at least as
+     * many colors as that component.
+     *
+     * @param vertices the vertices of the graph that was colored
+     */
+    private void calculateMaximumColor(Collection<Vertex> vertices) {
+        int maxColor = 0;
+        boolean optimal = true;
+        for (final Vertex vertex : vertices) {
+            final boolean proven = !unprovenVertices.contains(vertex);
+            if (vertex.getColor() > maxColor) {
+                maxColor = vertex.getColor();
+                optimal = proven;
+            } else if (vertex.getColor() == maxColor) {
+                optimal |= proven;
+            }
         }
+        maximumColorOptimal = optimal;
+        maximumColor = maxColor;
     }
 }
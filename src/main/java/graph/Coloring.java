@@ -0,0 +1,75 @@
+package graph;
+
+/**
+ * The coloring of a component together with whether its number of colors is known to be the
+ * smallest possible.
+ */
+final class Coloring {
+    private final int[] colors;
+    private final int numberOfColors;
+    private final boolean optimal;
+
+    /**
+     * Constructs a coloring from the given colors.
+     *
+     * @param colors the color of every vertex of the component indexed by local index
+     * @param optimal whether no coloring of the component uses fewer colors
+     */
+    Coloring(int[] colors, boolean optimal) {
+        this.colors = colors;
+        this.optimal = optimal;
+
+        int maxColor = -1;
+        for (final int color : colors) {
+            maxColor = Math.max(maxColor, color);
+        }
+        numberOfColors = maxColor + 1;
+    }
+
+    /**
+     * Constructs a coloring from colors found by a heuristic. The coloring is still known to be
+     * optimal when it uses no more colors than the component has vertices in a clique.
+     *
+     * @param component the component that was colored
+     * @param colors the color of every vertex of the component indexed by local index
+     *
+     * @return the coloring
+     */
+    static Coloring ofHeuristic(ComponentGraph component, int[] colors) {
+        final Coloring coloring = new Coloring(colors, false);
+        if (coloring.numberOfColors <= ExactColoring.findClique(component).length) {
+            return new Coloring(colors, true);
+        }
+        return coloring;
+    }
+
+    /**
+     * Returns the color of the vertex with the given local index.
+     *
+     * @param vertex the local index of the vertex
+     *
+     * @return the color of the vertex
+     */
+    int getColor(int vertex) {
+        return colors[vertex];
+    }
+
+    /**
+     * Returns the number of colors used.
+     *
+     * @return the number of colors
+     */
+    int numberOfColors() {
+        return numberOfColors;
+    }
+
+    /**
+     * Returns whether no coloring of the component uses fewer colors. If not, the number of colors
+     * is only an upper bound.
+     *
+     * @return whether the coloring is known to be optimal
+     */
+    boolean isOptimal() {
+        return optimal;
+    }
+}
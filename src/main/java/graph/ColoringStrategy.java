@@ -0,0 +1,71 @@
+package graph;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * The ways the vertices of a graph can be colored. The heuristics are fast enough for graphs of any
+ * size but may use more colors than necessary.
+ */
+public enum ColoringStrategy {
+    /**
+     * Colors vertices in order of decreasing degree with the smallest color available.
+     */
+    GREEDY {
+        @Override
+        Coloring color(ComponentGraph component, BooleanSupplier cancelled) {
+            return Coloring.ofHeuristic(component, GreedyColoring.color(component));
+        }
+    },
+    /**
+     * Repeatedly colors the vertex whose neighbors use the most distinct colors.
+     */
+    DSATUR {
+        @Override
+        Coloring color(ComponentGraph component, BooleanSupplier cancelled) {
+            return Coloring.ofHeuristic(component, DsaturColoring.color(component));
+        }
+    },
+    /**
+     * Builds one color class at a time from the vertices with the most neighbors that cannot
+     * join the class (recursive largest first).
+     */
+    RLF {
+        @Override
+        Coloring color(ComponentGraph component, BooleanSupplier cancelled) {
+            return Coloring.ofHeuristic(component, RlfColoring.color(component));
+        }
+    },
+    /**
+     * Searches for a coloring with as few colors as possible. Components that are too large or
+     * take too long to search are colored with DSATUR instead.
+     */
+    EXACT {
+        @Override
+        Coloring color(ComponentGraph component, BooleanSupplier cancelled) {
+            return ExactColoring.color(component, cancelled);
+        }
+    };
+
+    /**
+     * Colors the given component.
+     *
+     * @param component the component
+     *
+     * @return the coloring
+     */
+    Coloring color(ComponentGraph component) {
+        return color(component, () -> false);
+    }
+
+    /**
+     * Colors the given component, giving up as soon as possible once the given condition holds.
+     *
+     * @param component the component
+     * @param cancelled whether the coloring is no longer needed
+     *
+     * @return the coloring
+     *
+     * @throws java.util.concurrent.CancellationException if the coloring was given up
+     */
+    abstract Coloring color(ComponentGraph component, BooleanSupplier cancelled);
+}
@@ -0,0 +1,227 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the structure of a graph in compressed sparse row form. Vertices are
+ * assigned indices from zero in order of their IDs and the neighbors of each vertex are stored
+ * contiguously in a single array of indices, which keeps analysis passes cheap in both memory and
+ * time. Because the snapshot never changes it can safely be analyzed off the thread that edits the
+ * graph.
+ */
+public final class CompactGraph {
+    private final Vertex[] vertices;
+    private final int[] offsets;
+    private final int[] targets;
+    // The same connections stored by their ending vertex, so they can be followed backwards
+    private final int[] incomingOffsets;
+    private final int[] sources;
+    private final Map<Vertex, Integer> indices;
+
+    private CompactGraph(Vertex[] vertices, int[] offsets, int[] targets,
+            Map<Vertex, Integer> indices) {
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.indices = indices;
+
+        incomingOffsets = new int[vertices.length + 1];
+        for (final int target : targets) {
+            incomingOffsets[target + 1]++;
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            incomingOffsets[i + 1] += incomingOffsets[i];
+        }
+        sources = new int[targets.length];
+        final int[] fill = Arrays.copyOf(incomingOffsets, vertices.length);
+        for (int vertex = 0; vertex < vertices.length; vertex++) {
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                sources[fill[targets[i]]++] = vertex;
+            }
+        }
+    }
+
+    /**
+     * Builds a snapshot of the current structure of the given graph.
+     *
+     * @param graph the given graph
+     *
+     * @return the snapshot
+     */
+    static CompactGraph of(Graph graph) {
+        final List<Vertex> vertexList = new ArrayList<>(graph.getVertices());
+        vertexList.sort(Vertex::compareTo);
+
+        final int numVertices = vertexList.size();
+        final Vertex[] vertices = vertexList.toArray(new Vertex[numVertices]);
+        final Map<Vertex, Integer> indices = new HashMap<>(numVertices * 4 / 3 + 1);
+        for (int i = 0; i < numVertices; i++) {
+            indices.put(vertices[i], i);
+        }
+
+        final ConnectionManager connectionManager = graph.getConnectionManager();
+        final int[] offsets = new int[numVertices + 1];
+        final int[] targets = new int[connectionManager.numConnections()];
+        int next = 0;
+        for (int i = 0; i < numVertices; i++) {
+            offsets[i] = next;
+            for (final Vertex neighbor : connectionManager.getNeighbors(vertices[i])) {
+                targets[next++] = indices.get(neighbor);
+            }
+            // Sorted rows allow connectivity checks with a binary search
+            Arrays.sort(targets, offsets[i], next);
+        }
+        offsets[numVertices] = next;
+
+        return new CompactGraph(vertices, offsets, targets, indices);
+    }
+
+    /**
+     * Returns the number of vertices in the snapshot.
+     *
+     * @return the number of vertices
+     */
+    public int numberOfVertices() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the number of connections in the snapshot.
+     *
+     * @return the number of connections
+     */
+    public int numberOfConnections() {
+        return offsets[vertices.length];
+    }
+
+    /**
+     * Returns the vertex with the given index.
+     *
+     * @param index the index of the vertex
+     *
+     * @return the vertex
+     */
+    public Vertex getVertex(int index) {
+        return vertices[index];
+    }
+
+    /**
+     * Returns the vertices of the snapshot in order of their indices.
+     *
+     * @return the vertices
+     */
+    public List<Vertex> getVertices() {
+        return Collections.unmodifiableList(Arrays.asList(vertices));
+    }
+
+    /**
+     * Returns the index of the given vertex or {@code -1} if the vertex was not part of the graph
+     * when the snapshot was taken.
+     *
+     * @param vertex the given vertex
+     *
+     * @return the index of the vertex
+     */
+    public int indexOf(Vertex vertex) {
+        final Integer index = indices.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the number of connections originating from the vertex with the given index.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the degree of the vertex
+     */
+    public int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * Returns the position of the first neighbor of the given vertex. Neighbors are read with
+     * {@link #neighbor(int)} for every position from this one up to, but not including, {@link
+     * #neighborsEnd(int)}.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the position of the first neighbor
+     */
+    public int neighborsStart(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * Returns the position just past the last neighbor of the given vertex.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the position just past the last neighbor
+     */
+    public int neighborsEnd(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * Returns the index of the neighbor stored at the given position.
+     *
+     * @param position the position of the neighbor
+     *
+     * @return the index of the neighbor
+     */
+    public int neighbor(int position) {
+        return targets[position];
+    }
+
+    /**
+     * Returns the position of the first vertex with a connection to the given vertex. Those
+     * vertices are read with {@link #source(int)} for every position from this one up to, but not
+     * including, {@link #sourcesEnd(int)}.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the position of the first vertex connected to the given vertex
+     */
+    public int sourcesStart(int vertex) {
+        return incomingOffsets[vertex];
+    }
+
+    /**
+     * Returns the position just past the last vertex with a connection to the given vertex.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the position just past the last vertex connected to the given vertex
+     */
+    public int sourcesEnd(int vertex) {
+        return incomingOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the index of the vertex with a connection stored at the given position.
+     *
+     * @param position the position of the vertex
+     *
+     * @return the index of the vertex
+     */
+    public int source(int position) {
+        return sources[position];
+    }
+
+    /**
+     * Returns whether there is a connection from the first vertex to the second vertex.
+     *
+     * @param start the index of the starting vertex
+     * @param end the index of the ending vertex
+     *
+     * @return whether the two vertices are connected
+     */
+    public boolean connected(int start, int end) {
+        return Arrays.binarySearch(targets, offsets[start], offsets[start + 1], end) >= 0;
+    }
+}
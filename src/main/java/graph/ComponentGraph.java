@@ -0,0 +1,228 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A connected component, or another subset of the vertices, of a {@link CompactGraph} renumbered
+ * from zero. Connections are treated as undirected so that a connection in either direction makes
+ * two vertices adjacent, which is what a proper coloring requires.
+ */
+final class ComponentGraph {
+    private final CompactGraph graph;
+    private final int[] members;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int maxDegree;
+
+    /**
+     * Builds the component of the given snapshot consisting of the vertices with the given
+     * indices.
+     *
+     * @param graph the snapshot of the graph
+     * @param component the indices of the vertices of the component
+     */
+    ComponentGraph(CompactGraph graph, int[] component) {
+        this.graph = graph;
+        members = component.clone();
+        Arrays.sort(members);
+
+        final int size = members.length;
+        final int[] degrees = new int[size];
+        for (int v = 0; v < size; v++) {
+            final int member = members[v];
+            for (int i = graph.neighborsStart(member); i < graph.neighborsEnd(member); i++) {
+                final int w = localIndex(graph.neighbor(i));
+                if (w >= 0 && w != v) {
+                    degrees[v]++;
+                    degrees[w]++;
+                }
+            }
+        }
+
+        // Connections in both directions are recorded twice and removed after sorting each row
+        final int[] rowStarts = new int[size + 1];
+        for (int v = 0; v < size; v++) {
+            rowStarts[v + 1] = rowStarts[v] + degrees[v];
+        }
+        final int[] rows = new int[rowStarts[size]];
+        final int[] fill = Arrays.copyOf(rowStarts, size);
+        for (int v = 0; v < size; v++) {
+            final int member = members[v];
+            for (int i = graph.neighborsStart(member); i < graph.neighborsEnd(member); i++) {
+                final int w = localIndex(graph.neighbor(i));
+                if (w >= 0 && w != v) {
+                    rows[fill[v]++] = w;
+                    rows[fill[w]++] = v;
+                }
+            }
+        }
+
+        offsets = new int[size + 1];
+        int next = 0;
+        for (int v = 0; v < size; v++) {
+            offsets[v] = next;
+            Arrays.sort(rows, rowStarts[v], rowStarts[v + 1]);
+            for (int i = rowStarts[v]; i < rowStarts[v + 1]; i++) {
+                if (next == offsets[v] || rows[next - 1] != rows[i]) {
+                    rows[next++] = rows[i];
+                }
+            }
+        }
+        offsets[size] = next;
+        targets = Arrays.copyOf(rows, next);
+        maxDegree = calculateMaxDegree(offsets);
+    }
+
+    private ComponentGraph(CompactGraph graph, int[] members, int[] offsets, int[] targets) {
+        this.graph = graph;
+        this.members = members;
+        this.offsets = offsets;
+        this.targets = targets;
+        maxDegree = calculateMaxDegree(offsets);
+    }
+
+    /**
+     * Returns the subgraph induced by the vertices with the given local indices. The vertices of
+     * the subgraph keep their relative order so local index {@code i} of the subgraph refers to
+     * the {@code i}th smallest of the given indices.
+     *
+     * @param vertices the local indices of the vertices of the subgraph
+     *
+     * @return the induced subgraph
+     */
+    ComponentGraph induced(int[] vertices) {
+        final int[] subset = vertices.clone();
+        Arrays.sort(subset);
+
+        final int[] subsetMembers = new int[subset.length];
+        final int[] subsetOffsets = new int[subset.length + 1];
+        int[] subsetTargets = new int[16];
+        int next = 0;
+        for (int v = 0; v < subset.length; v++) {
+            subsetMembers[v] = members[subset[v]];
+            subsetOffsets[v] = next;
+            for (int i = offsets[subset[v]]; i < offsets[subset[v] + 1]; i++) {
+                final int w = Arrays.binarySearch(subset, targets[i]);
+                if (w >= 0) {
+                    if (next == subsetTargets.length) {
+                        subsetTargets = Arrays.copyOf(subsetTargets, next * 2);
+                    }
+                    subsetTargets[next++] = w;
+                }
+            }
+        }
+        subsetOffsets[subset.length] = next;
+
+        return new ComponentGraph(graph, subsetMembers, subsetOffsets,
+                Arrays.copyOf(subsetTargets, next));
+    }
+
+    private static int calculateMaxDegree(int[] offsets) {
+        int maxDegree = 0;
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            maxDegree = Math.max(maxDegree, offsets[v + 1] - offsets[v]);
+        }
+        return maxDegree;
+    }
+
+    private int localIndex(int index) {
+        final int local = Arrays.binarySearch(members, index);
+        return local < 0 ? -1 : local;
+    }
+
+    /**
+     * Returns the number of vertices in the component.
+     *
+     * @return the number of vertices
+     */
+    int size() {
+        return members.length;
+    }
+
+    /**
+     * Returns the index in the snapshot of the vertex with the given local index.
+     *
+     * @param vertex the local index of the vertex
+     *
+     * @return the index of the vertex in the snapshot
+     */
+    int member(int vertex) {
+        return members[vertex];
+    }
+
+    /**
+     * Returns the vertex with the given local index.
+     *
+     * @param vertex the local index of the vertex
+     *
+     * @return the vertex
+     */
+    Vertex getVertex(int vertex) {
+        return graph.getVertex(members[vertex]);
+    }
+
+    /**
+     * Returns the number of vertices adjacent to the given vertex.
+     *
+     * @param vertex the local index of the vertex
+     *
+     * @return the degree of the vertex
+     */
+    int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * Returns the largest degree of any vertex in the component.
+     *
+     * @return the maximum degree
+     */
+    int maxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Returns the position of the first neighbor of the given vertex.
+     *
+     * @param vertex the local index of the vertex
+     *
+     * @return the position of the first neighbor
+     */
+    int neighborsStart(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * Returns the position just past the last neighbor of the given vertex.
+     *
+     * @param vertex the local index of the vertex
+     *
+     * @return the position just past the last neighbor
+     */
+    int neighborsEnd(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * Returns the local index of the neighbor stored at the given position.
+     *
+     * @param position the position of the neighbor
+     *
+     * @return the local index of the neighbor
+     */
+    int neighbor(int position) {
+        return targets[position];
+    }
+
+    /**
+     * Returns whether the two given vertices are adjacent.
+     *
+     * @param u the local index of the first vertex
+     * @param v the local index of the second vertex
+     *
+     * @return whether the vertices are adjacent
+     */
+    boolean adjacent(int u, int v) {
+        return Arrays.binarySearch(targets, offsets[u], offsets[u + 1], v) >= 0;
+    }
+}
@@ -3,52 +3,100 @@ package graph;
 import com.google.common.collect.ImmutableList;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Represents a single connected component which consists of all nodes that are connected to each
  * other.
  */
 public class ConnectedComponent {
-    private final Set<Vertex> vertexSet;
-    private final List<Vertex> vertexList;
+    private final CompactGraph graph;
+    private final int[] indices;
+    private final BitSet members = new BitSet();
     private final int degree;
 
-    private ConnectedComponent(Set<Vertex> vertices) {
-        this.vertexList = new ArrayList<>();
+    private ConnectedComponent(CompactGraph graph, int[] indices) {
+        this.graph = graph;
+        this.indices = indices;
+
         int degree = 0;
-        for (final Vertex vertex : vertices) {
-            degree = Math.max(degree, vertex.getDegree());
-            vertexList.add(vertex);
+        for (final int index : indices) {
+            degree = Math.max(degree, graph.degree(index));
+            members.set(index);
         }
         this.degree = degree;
-
-        this.vertexSet = vertices;
     }
 
     /**
-     * Finds the connected component that the given vertex is in.
+     * Finds the connected component that the vertex with the given index is in.
      *
-     * @param start the given vertex
+     * @param graph the snapshot of the graph
+     * @param start the index of the given vertex
      *
      * @return the connected component the given vertex is in
      */
-    public static ConnectedComponent find(Vertex start) {
-        final Set<Vertex> vertices = new HashSet<>();
-        calculateConnectedComponent(start, vertices);
-        return new ConnectedComponent(vertices);
+    public static ConnectedComponent find(CompactGraph graph, int start) {
+        return find(graph, start, new boolean[graph.numberOfVertices()]);
     }
 
-    private static void calculateConnectedComponent(Vertex vertex, Set<Vertex> vertices) {
-        vertices.add(vertex);
+    /**
+     * Finds every connected component of the given graph. Connections are treated as undirected.
+     *
+     * @param graph the snapshot of the graph
+     *
+     * @return the connected components of the graph
+     */
+    public static List<ConnectedComponent> findAll(CompactGraph graph) {
+        final List<ConnectedComponent> components = new ArrayList<>();
+        final boolean[] visited = new boolean[graph.numberOfVertices()];
+        for (int vertex = 0; vertex < graph.numberOfVertices(); vertex++) {
+            if (!visited[vertex]) {
+                components.add(find(graph, vertex, visited));
+            }
+        }
+        return components;
+    }
 
-        for (final Vertex neighbor : vertex.getNeighbors()) {
-            if (!vertices.contains(neighbor)) {
-                calculateConnectedComponent(neighbor, vertices);
+    /**
+     * Finds the connected component that the vertex with the given index is in, marking every
+     * vertex of the component as visited. Connections are treated as undirected.
+     *
+     * @param graph the snapshot of the graph
+     * @param start the index of the given vertex
+     * @param visited the vertices that have been visited, indexed by vertex index
+     *
+     * @return the connected component the given vertex is in
+     */
+    static ConnectedComponent find(CompactGraph graph, int start, boolean[] visited) {
+        // Breadth-first search where the queue doubles as the list of members. Connections are
+        // followed in both directions since a connection either way joins two vertices.
+        final int[] queue = new int[graph.numberOfVertices()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        visited[start] = true;
+        while (head < tail) {
+            final int vertex = queue[head++];
+            for (int i = graph.neighborsStart(vertex); i < graph.neighborsEnd(vertex); i++) {
+                tail = enqueue(graph.neighbor(i), queue, tail, visited);
+            }
+            for (int i = graph.sourcesStart(vertex); i < graph.sourcesEnd(vertex); i++) {
+                tail = enqueue(graph.source(i), queue, tail, visited);
             }
         }
+
+        return new ConnectedComponent(graph, Arrays.copyOf(queue, tail));
+    }
+
+    private static int enqueue(int vertex, int[] queue, int tail, boolean[] visited) {
+        if (visited[vertex]) {
+            return tail;
+        }
+        visited[vertex] = true;
+        queue[tail] = vertex;
+        return tail + 1;
     }
 
     /**
@@ -57,7 +105,30 @@ public class ConnectedComponent {
      * @return the vertices in the current connected component
      */
     public List<Vertex> getVertices() {
-        return ImmutableList.copyOf(vertexList);
+        final ImmutableList.Builder<Vertex> vertices = ImmutableList.builder();
+        for (final int index : indices) {
+            vertices.add(graph.getVertex(index));
+        }
+        return vertices.build();
+    }
+
+    /**
+     * Returns the indices of the vertices in the current connected component. The returned array
+     * is shared and must not be modified.
+     *
+     * @return the indices of the vertices in the current connected component
+     */
+    int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Returns the number of vertices in the current connected component.
+     *
+     * @return the number of vertices
+     */
+    public int size() {
+        return indices.length;
     }
 
     /**
@@ -68,7 +139,8 @@ public class ConnectedComponent {
      * @return whether the given vertex is in the current connected component
      */
     public boolean containsVertex(Vertex vertex) {
-        return vertexSet.contains(vertex);
+        final int index = graph.indexOf(vertex);
+        return index >= 0 && members.get(index);
     }
 
     /**
@@ -1,7 +1,5 @@
 package graph;
 
-import java.awt.Color;
-import java.awt.Graphics;
 import java.awt.geom.Line2D;
 
 /**
@@ -52,8 +50,8 @@ public class Connection {
      * @return the distance between the position and the line
      */
     public double distance(CanvasPosition position) {
-        final Line2D line = new Line2D.Double(start.getX(), start.getY(), end.getX(), end.getY());
-        return line.ptSegDist(position.getX(), position.getY());
+        return Line2D.ptSegDist(start.getX(), start.getY(), end.getX(), end.getY(),
+                position.getX(), position.getY());
     }
 
     /**
@@ -70,24 +68,6 @@ public class Connection {
         selected = false;
     }
 
-    /**
-     * Draws the connection to the given canvas.
-     *
-     * @param g the canvas
-     * @param canvasX the x coordinate of the canvas
-     * @param canvasY the y coordinate of the canvas
-     */
-    public void draw(Graphics g, int canvasX, int canvasY) {
-        if (selected) {
-            g.setColor(Color.RED);
-        } else {
-            g.setColor(Color.WHITE);
-        }
-
-        g.drawLine(start.getX() + canvasX, start.getY() + canvasY, end.getX() + canvasX,
-                end.getY() + canvasY);
-    }
-
     /**
      * Returns whether the current connection is selected.
      *
@@ -99,7 +79,8 @@ public class Connection {
 
     @Override
     public int hashCode() {
-        return start.hashCode() ^ end.hashCode();
+        // XOR would send every connection between consecutive IDs to the same few buckets
+        return 31 * start.hashCode() + end.hashCode();
     }
 
     @Override
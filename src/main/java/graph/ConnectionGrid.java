@@ -0,0 +1,187 @@
+package graph;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexes the connections of a graph by the cells of the canvas their line segments pass through,
+ * so that the connections near a point can be found by only looking at the connections passing
+ * through the cells around the point. The cells of every connection are remembered so that a
+ * connection can be removed or moved after its vertices have moved.
+ */
+final class ConnectionGrid {
+    // Connections are long and thin so larger cells than for vertices keep them in fewer cells
+    private static final int CELL_SIZE = 64;
+
+    private final Map<Long, List<Connection>> cells = new HashMap<>();
+    private final Map<Connection, long[]> connectionCells = new HashMap<>();
+
+    /**
+     * Adds the given connection at the current positions of its vertices.
+     *
+     * @param connection the connection
+     */
+    void add(Connection connection) {
+        final long[] keys = crossedCells(connection.getStart().getX(),
+                connection.getStart().getY(), connection.getEnd().getX(),
+                connection.getEnd().getY());
+        connectionCells.put(connection, keys);
+        for (final long key : keys) {
+            List<Connection> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.put(key, cell);
+            }
+            cell.add(connection);
+        }
+    }
+
+    /**
+     * Removes the given connection if it is in the grid.
+     *
+     * @param connection the connection
+     */
+    void remove(Connection connection) {
+        final long[] keys = connectionCells.remove(connection);
+        if (keys == null) {
+            return;
+        }
+        for (final long key : keys) {
+            final List<Connection> cell = cells.get(key);
+            cell.remove(connection);
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Moves the given connection to the current positions of its vertices.
+     *
+     * @param connection the connection
+     */
+    void update(Connection connection) {
+        remove(connection);
+        add(connection);
+    }
+
+    /**
+     * Returns the connections whose line segments are closer to the given position than the given
+     * distance.
+     *
+     * @param position the position
+     * @param distance the distance
+     *
+     * @return the connections near the position
+     */
+    Set<Connection> connectionsNear(CanvasPosition position, double distance) {
+        final Set<Connection> found = new HashSet<>();
+        // Any point of a segment closer than the distance lies in one of the cells searched
+        final int reach = (int) Math.ceil(distance);
+        for (int cellX = cell(position.getX() - reach); cellX <= cell(position.getX() + reach);
+                cellX++) {
+            for (int cellY = cell(position.getY() - reach);
+                    cellY <= cell(position.getY() + reach); cellY++) {
+                final List<Connection> cell = cells.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (final Connection connection : cell) {
+                    if (connection.distance(position) < distance) {
+                        found.add(connection);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the connections that may be visible in the given area of the canvas, which are those
+     * passing through a cell overlapping the area.
+     *
+     * @param area the area of the canvas
+     *
+     * @return the connections in the area
+     */
+    Set<Connection> connectionsIn(Rectangle area) {
+        final Set<Connection> found = new HashSet<>();
+        for (int cellX = cell(area.x); cellX <= cell(area.x + area.width); cellX++) {
+            for (int cellY = cell(area.y); cellY <= cell(area.y + area.height); cellY++) {
+                final List<Connection> cell = cells.get(cellKey(cellX, cellY));
+                if (cell != null) {
+                    found.addAll(cell);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the cells the segment between the given points passes through, walking from cell
+     * to cell along the segment. Where the segment passes exactly through the corner of a cell
+     * both cells next to the corner are included.
+     */
+    private static long[] crossedCells(int startX, int startY, int endX, int endY) {
+        int cellX = cell(startX);
+        int cellY = cell(startY);
+        final int endCellX = cell(endX);
+        final int endCellY = cell(endY);
+        final int steps = Math.abs(endCellX - cellX) + Math.abs(endCellY - cellY);
+
+        final long[] keys = new long[steps * 2 + 4];
+        int numKeys = 0;
+        keys[numKeys++] = cellKey(cellX, cellY);
+
+        final int dx = endX - startX;
+        final int dy = endY - startY;
+        final int stepX = Integer.signum(dx);
+        final int stepY = Integer.signum(dy);
+        // The fraction of the segment at which it crosses the next vertical or horizontal border
+        double nextX = dx == 0 ? Double.POSITIVE_INFINITY :
+                ((double) (stepX > 0 ? cellX + 1 : cellX) * CELL_SIZE - startX) / dx;
+        double nextY = dy == 0 ? Double.POSITIVE_INFINITY :
+                ((double) (stepY > 0 ? cellY + 1 : cellY) * CELL_SIZE - startY) / dy;
+        final double deltaX = (double) CELL_SIZE / Math.abs(dx);
+        final double deltaY = (double) CELL_SIZE / Math.abs(dy);
+
+        for (int step = 0; step < steps && (cellX != endCellX || cellY != endCellY); step++) {
+            if (nextX < nextY) {
+                cellX += stepX;
+                nextX += deltaX;
+            } else if (nextY < nextX) {
+                cellY += stepY;
+                nextY += deltaY;
+            } else {
+                keys[numKeys++] = cellKey(cellX + stepX, cellY);
+                keys[numKeys++] = cellKey(cellX, cellY + stepY);
+                cellX += stepX;
+                cellY += stepY;
+                nextX += deltaX;
+                nextY += deltaY;
+                step++;
+            }
+            keys[numKeys++] = cellKey(cellX, cellY);
+        }
+
+        // Rounding may end the walk early, in which case the last cell is added explicitly
+        if (keys[numKeys - 1] != cellKey(endCellX, endCellY)) {
+            keys[numKeys++] = cellKey(endCellX, endCellY);
+        }
+        return numKeys == keys.length ? keys : Arrays.copyOf(keys, numKeys);
+    }
+
+    private static int cell(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
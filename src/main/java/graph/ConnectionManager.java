@@ -1,6 +1,16 @@
 package graph;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -9,7 +19,15 @@ import java.util.Set;
 class ConnectionManager {
 
     private final Graph graph;
-    private final Set<Connection> connections = new HashSet<>();
+    private final Set<Connection> connections;
+
+    // Per-vertex adjacency indexes so that neighbor queries only touch the connections of the
+    // vertex in question instead of every connection in the graph
+    private final Map<Vertex, Map<Vertex, Connection>> outgoing;
+    private final Map<Vertex, Map<Vertex, Connection>> incoming;
+    private final ConnectionGrid grid = new ConnectionGrid();
+    // Counts changes to which connections exist and where they run, for caches derived from them
+    private long version;
 
     /**
      * Constructs a new connection manager for the given graph.
@@ -17,7 +35,22 @@ class ConnectionManager {
      * @param graph the given graph
      */
     ConnectionManager(Graph graph) {
+        this(graph, 0, 0);
+    }
+
+    /**
+     * Constructs a new connection manager for the given graph with room for the given number of
+     * vertices and connections.
+     *
+     * @param graph the given graph
+     * @param expectedVertices the expected number of vertices
+     * @param expectedConnections the expected number of connections
+     */
+    ConnectionManager(Graph graph, int expectedVertices, int expectedConnections) {
         this.graph = graph;
+        connections = Sets.newHashSetWithExpectedSize(expectedConnections);
+        outgoing = Maps.newHashMapWithExpectedSize(expectedVertices);
+        incoming = Maps.newHashMapWithExpectedSize(expectedVertices);
     }
 
     /**
@@ -29,7 +62,8 @@ class ConnectionManager {
      * @return whether the two vertices are connected
      */
     boolean verticesConnected(Vertex start, Vertex end) {
-        return connections.contains(new Connection(start, end));
+        final Map<Vertex, Connection> targets = outgoing.get(start);
+        return targets != null && targets.containsKey(end);
     }
 
     /**
@@ -45,8 +79,6 @@ class ConnectionManager {
         } else {
             addConnection(start, end);
         }
-
-        graph.structurallyChanged(start, end);
     }
 
     /**
@@ -57,9 +89,15 @@ class ConnectionManager {
      * @param end the ending vertex
      */
     void addConnection(Vertex start, Vertex end) {
-        connections.add(new Connection(start, end));
-
-        graph.structurallyChanged(start, end);
+        if (!verticesConnected(start, end)) {
+            final Connection connection = new Connection(start, end);
+            connections.add(connection);
+            index(outgoing, start, end, connection);
+            index(incoming, end, start, connection);
+            grid.add(connection);
+            version++;
+            graph.connectionAdded(connection);
+        }
     }
 
     /**
@@ -78,7 +116,13 @@ class ConnectionManager {
      * @param connection the connection
      */
     void removeConnection(Connection connection) {
-        connections.remove(connection);
+        if (!connections.remove(connection)) {
+            return;
+        }
+        version++;
+        unindex(outgoing, connection.getStart(), connection.getEnd());
+        unindex(incoming, connection.getEnd(), connection.getStart());
+        grid.remove(connection);
 
         graph.structurallyChanged(connection.getStart(), connection.getEnd());
     }
@@ -92,17 +136,53 @@ class ConnectionManager {
         graph.structurallyChanged(removed.getNeighbors());
 
         // Enumerate the connections to remove to prevent concurrent modification
-        final Set<Connection> connectionsToRemove = new HashSet<>();
-        for (Connection connection : connections) {
-            if (connection.getStart().equals(removed) || connection.getEnd().equals(removed)) {
-                connectionsToRemove.add(connection);
-            }
-        }
+        final List<Connection> connectionsToRemove = new ArrayList<>();
+        connectionsToRemove.addAll(adjacent(outgoing, removed).values());
+        connectionsToRemove.addAll(adjacent(incoming, removed).values());
         for (Connection connection : connectionsToRemove) {
             removeConnection(connection);
         }
     }
 
+    /**
+     * Notifies the manager that the given vertex has moved so that its connections are found at
+     * their new positions.
+     *
+     * @param moved the vertex that moved
+     */
+    void vertexMoved(Vertex moved) {
+        version++;
+        for (Connection connection : adjacent(outgoing, moved).values()) {
+            grid.update(connection);
+        }
+        for (Connection connection : adjacent(incoming, moved).values()) {
+            grid.update(connection);
+        }
+    }
+
+    /**
+     * Returns the connections that are closer to the given position than the given distance.
+     *
+     * @param position the position
+     * @param distance the distance
+     *
+     * @return the connections near the position
+     */
+    Set<Connection> getConnectionsNear(CanvasPosition position, double distance) {
+        return grid.connectionsNear(position, distance);
+    }
+
+    /**
+     * Returns the connections that may be visible in the given area of the canvas.
+     *
+     * @param area the area of the canvas
+     *
+     * @return the connections in the area
+     */
+    Set<Connection> getConnectionsIn(Rectangle area) {
+        return grid.connectionsIn(area);
+    }
+
     /**
      * Returns a set representing all connections in the graph.
      *
@@ -115,21 +195,38 @@ class ConnectionManager {
     /**
      * Returns the neighbors of the given vertex. If the vertex has no neighbors an empty set will
      * be returned. The neighbors of a vertex are all the vertices that are endpoints of connections
-     * originating from the vertex.
+     * originating from the vertex. The returned set is unmodifiable.
      *
      * @param start the starting vertex
      *
      * @return the neighbors
      */
     Set<Vertex> getNeighbors(Vertex start) {
-        final Set<Vertex> neighbors = new HashSet<>();
-        for (Connection connection : connections) {
-            if (connection.getStart().equals(start)) {
-                neighbors.add(connection.getEnd());
-            }
-        }
+        return Collections.unmodifiableSet(adjacent(outgoing, start).keySet());
+    }
+
+    /**
+     * Returns the vertices connected to the given vertex by a connection in either direction. A
+     * vertex connected in both directions is returned twice.
+     *
+     * @param vertex the vertex
+     *
+     * @return the adjacent vertices
+     */
+    Iterable<Vertex> getAdjacentVertices(Vertex vertex) {
+        return Iterables.concat(adjacent(outgoing, vertex).keySet(),
+                adjacent(incoming, vertex).keySet());
+    }
 
-        return neighbors;
+    /**
+     * Returns the number of connections originating from the given vertex.
+     *
+     * @param start the starting vertex
+     *
+     * @return the number of connections originating from the vertex
+     */
+    int getDegree(Vertex start) {
+        return adjacent(outgoing, start).size();
     }
 
     /**
@@ -142,15 +239,23 @@ class ConnectionManager {
      */
     Set<Connection> getVertexConnections(Vertex vertex) {
         final Set<Connection> neighborConnections = new HashSet<>();
-        for (Connection connection : connections) {
-            if (connection.getStart().equals(vertex) || connection.getEnd().equals(vertex)) {
-                neighborConnections.add(connection);
-            }
-        }
+        neighborConnections.addAll(adjacent(outgoing, vertex).values());
+        neighborConnections.addAll(adjacent(incoming, vertex).values());
 
         return neighborConnections;
     }
 
+    /**
+     * Returns the structural version of the connections, which increases whenever a connection
+     * is added or removed or one of its vertices moves. Anything derived from the connections and
+     * the positions of their vertices stays valid for as long as the version does not change.
+     *
+     * @return the structural version
+     */
+    long getVersion() {
+        return version;
+    }
+
     /**
      * Returns the number of connections for the given graph.
      *
@@ -159,4 +264,32 @@ class ConnectionManager {
     int numConnections() {
         return connections.size();
     }
+
+    private static Map<Vertex, Connection> adjacent(Map<Vertex, Map<Vertex, Connection>> index,
+            Vertex vertex) {
+        final Map<Vertex, Connection> adjacent = index.get(vertex);
+        return adjacent == null ? Collections.<Vertex, Connection>emptyMap() : adjacent;
+    }
+
+    private static void index(Map<Vertex, Map<Vertex, Connection>> index, Vertex from, Vertex to,
+            Connection connection) {
+        Map<Vertex, Connection> adjacent = index.get(from);
+        if (adjacent == null) {
+            adjacent = new HashMap<>();
+            index.put(from, adjacent);
+        }
+        adjacent.put(to, connection);
+    }
+
+    private static void unindex(Map<Vertex, Map<Vertex, Connection>> index, Vertex from,
+            Vertex to) {
+        final Map<Vertex, Connection> adjacent = index.get(from);
+        if (adjacent != null) {
+            adjacent.remove(to);
+            // Drop empty entries so removed vertices do not linger in the index
+            if (adjacent.isEmpty()) {
+                index.remove(from);
+            }
+        }
+    }
 }
@@ -1,7 +1,8 @@
 package graph;
 
 import java.awt.*;
-import java.util.HashSet;
+import java.awt.geom.Path2D;
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -23,34 +24,120 @@ class ConnectionVisualizer {
     }
 
     /**
-     * Draws the connections of a graph to a canvas.
+     * Draws the connections of a graph that pass through the given area to a canvas without
+     * highlighting selected connections. All connections are stroked as a single path, and a pair
+     * of connections going both ways between two vertices is only drawn once.
      *
      * @param g the canvas
+     * @param canvasX the x canvas shift
+     * @param canvasY the y canvas shift
+     * @param visibleArea the visible area of the canvas or {@code null} to draw every connection
      */
-    void drawConnections(Graphics g, int canvasX, int canvasY) {
-        for (Connection connection : cacher.getConnections()) {
-            connection.draw(g, canvasX, canvasY);
+    void drawConnections(Graphics g, int canvasX, int canvasY, Rectangle visibleArea) {
+        final Graphics2D g2 = (Graphics2D) g;
+        g2.setColor(Color.WHITE);
+        // The cached path holds every connection, so it is used whenever all of them are visible
+        final Path2D cachedPath = cacher.getPath();
+        if (visibleArea == null || visibleArea.contains(cacher.getBounds())) {
+            g2.translate(canvasX, canvasY);
+            g2.draw(cachedPath);
+            g2.translate(-canvasX, -canvasY);
+            return;
         }
+
+        final Set<Connection> connections = manager.getConnectionsIn(visibleArea);
+        final Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO, connections.size() * 2);
+        for (Connection connection : connections) {
+            // The reverse connection covers the same line and is found in the same area
+            if (!isDuplicate(connection)) {
+                addLine(path, connection, canvasX, canvasY);
+            }
+        }
+        g2.draw(path);
+    }
+
+    /**
+     * Draws the given connections to a canvas as selected, stroking them as a single path.
+     *
+     * @param g the canvas
+     * @param canvasX the x canvas shift
+     * @param canvasY the y canvas shift
+     * @param connections the connections to draw
+     */
+    static void drawSelectedConnections(Graphics g, int canvasX, int canvasY,
+            Collection<Connection> connections) {
+        if (connections.isEmpty()) {
+            return;
+        }
+        final Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO, connections.size() * 2);
+        for (Connection connection : connections) {
+            addLine(path, connection, canvasX, canvasY);
+        }
+        g.setColor(Color.RED);
+        ((Graphics2D) g).draw(path);
+    }
+
+    private static void addLine(Path2D path, Connection connection, int canvasX, int canvasY) {
+        path.moveTo(connection.getStart().getX() + canvasX,
+                connection.getStart().getY() + canvasY);
+        path.lineTo(connection.getEnd().getX() + canvasX, connection.getEnd().getY() + canvasY);
     }
 
     /**
-     * Caches connections to save the ConnectionManager from processing connections frequently.
+     * Returns whether the given connection is drawn by its reverse connection, which is the case
+     * for the connection starting at the higher ID of a pair going both ways.
+     */
+    private boolean isDuplicate(Connection connection) {
+        final Vertex start = connection.getStart();
+        final Vertex end = connection.getEnd();
+        return start.getID() > end.getID() && manager.verticesConnected(end, start);
+    }
+
+    /**
+     * Caches every connection of the graph as a single path on the canvas, with each pair of
+     * connections going both ways between two vertices in it once. The path is only built again
+     * when the structural version of the connection manager changes.
      */
     class ConnectionCacher {
-        private Set<Connection> cachedConnections = new HashSet<>();
+        private Path2D cachedPath;
+        private Rectangle cachedBounds;
+        private long cachedVersion = -1;
 
         /**
-         * Returns the connections of the graph. If the connections have been changed the cache will
-         * be updated to reflect those changes.
+         * Returns the path of all connections without any canvas shift, building it again first
+         * if the connections have changed.
          *
-         * @return the set of connections
+         * @return the path of all connections
          */
-        public Set<Connection> getConnections() {
-            if (cachedConnections.size() != manager.numConnections()) {
-                cachedConnections = manager.getConnections();
-            }
+        public Path2D getPath() {
+            update();
+            return cachedPath;
+        }
 
-            return cachedConnections;
+        /**
+         * Returns the area of the canvas covered by the path of all connections.
+         *
+         * @return the bounds of the path
+         */
+        public Rectangle getBounds() {
+            update();
+            return cachedBounds;
+        }
+
+        private void update() {
+            if (cachedVersion != manager.getVersion()) {
+                final Set<Connection> connections = manager.getConnections();
+                final Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO,
+                        connections.size() * 2);
+                for (Connection connection : connections) {
+                    if (!isDuplicate(connection)) {
+                        addLine(path, connection, 0, 0);
+                    }
+                }
+                cachedPath = path;
+                cachedBounds = path.getBounds();
+                cachedVersion = manager.getVersion();
+            }
         }
     }
 }
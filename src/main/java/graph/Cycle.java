@@ -2,9 +2,7 @@ package graph;
 
 import com.google.common.collect.ImmutableList;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Represents a cycle in the graph. A cycle does not repeat vertices and starts and ends at the
@@ -12,7 +10,6 @@ import java.util.Set;
  */
 public class Cycle {
     private final ImmutableList<Vertex> vertices;
-    private final Set<Vertex> vertexSet;
 
     /**
      * Constructs a cycle containing the given vertices
@@ -21,7 +18,6 @@ public class Cycle {
      */
     public Cycle(List<Vertex> vertices) {
         this.vertices = ImmutableList.copyOf(vertices);
-        this.vertexSet = new HashSet<>(vertices);
     }
 
     /**
@@ -53,12 +49,12 @@ public class Cycle {
 
     @Override
     public boolean equals(Object other) {
-        return other instanceof Cycle && ((Cycle) other).vertexSet.equals(vertexSet);
+        return other instanceof Cycle && ((Cycle) other).vertices.equals(vertices);
     }
 
     @Override
     public int hashCode() {
-        return vertexSet.hashCode();
+        return vertices.hashCode();
     }
 
     @Override
@@ -0,0 +1,216 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Enumerates the simple cycles of an undirected graph with Johnson's algorithm so that every cycle
+ * is found exactly once. Within one search the time spent between two cycles is bounded by the size
+ * of the graph, but as a search is started for every pair of a vertex and its first neighbor the
+ * whole enumeration takes time proportional to the size of the graph times the number of cycles
+ * plus connections.
+ * <p>
+ * Each cycle is found from its smallest vertex, searching only the vertices larger than it. After a
+ * path fails to lead back to the start its vertices stay blocked until one of the vertices they
+ * depend on is freed, so no dead end is explored twice. Every undirected cycle is traversed in both
+ * directions by the search and only reported in the direction whose second vertex is smaller than
+ * its last.
+ */
+final class CycleEnumerator {
+    // How many steps of the search are taken between checks for cancellation
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    private final ComponentGraph graph;
+    private final Visitor visitor;
+    private final BooleanSupplier cancelled;
+    private int stepsUntilCancelCheck = CANCEL_CHECK_INTERVAL;
+
+    // The current path starting at the start vertex together with the search state of each step
+    private final int[] path;
+    private final int[] positions;
+    private final boolean[] found;
+
+    private final boolean[] blocked;
+    // The vertices to unblock once each vertex is unblocked
+    private final int[][] blockedBy;
+    private final int[] blockedByCounts;
+
+    // Vertices whose state needs to be reset before the next search
+    private final int[] touched;
+    private final boolean[] isTouched;
+    private int numTouched;
+
+    private final int[] unblockStack;
+
+    private CycleEnumerator(ComponentGraph graph, Visitor visitor, BooleanSupplier cancelled) {
+        this.graph = graph;
+        this.visitor = visitor;
+        this.cancelled = cancelled;
+
+        final int size = graph.size();
+        path = new int[size];
+        positions = new int[size];
+        found = new boolean[size];
+        blocked = new boolean[size];
+        blockedBy = new int[size][];
+        blockedByCounts = new int[size];
+        touched = new int[size];
+        isTouched = new boolean[size];
+        unblockStack = new int[size];
+    }
+
+    /**
+     * Receives the cycles found by the enumeration.
+     */
+    interface Visitor {
+        /**
+         * Visits a cycle. The vertices of the cycle are given in order without repeating the
+         * first vertex at the end. The array is reused for later cycles.
+         *
+         * @param cycle the local indices of the vertices of the cycle
+         * @param length the number of vertices in the cycle
+         *
+         * @return whether to continue with the next cycle
+         */
+        boolean visit(int[] cycle, int length);
+    }
+
+    /**
+     * Enumerates every simple cycle of the given graph with at least three vertices until the
+     * visitor asks to stop or the enumeration is cancelled.
+     *
+     * @param graph the graph
+     * @param visitor the visitor called for every cycle
+     * @param cancelled whether to stop the enumeration
+     *
+     * @return whether every cycle was visited
+     */
+    static boolean enumerate(ComponentGraph graph, Visitor visitor, BooleanSupplier cancelled) {
+        return new CycleEnumerator(graph, visitor, cancelled).enumerate();
+    }
+
+    private boolean enumerate() {
+        for (int start = 0; start < graph.size(); start++) {
+            for (int i = graph.neighborsStart(start); i < graph.neighborsEnd(start); i++) {
+                final int first = graph.neighbor(i);
+                if (first > start && !search(start, first)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds every cycle starting with the given two vertices. The connection back from the first
+     * vertex to the start is left out because following it would give a cycle of two vertices, so
+     * the blocked state depends on the first vertex and is reset before every search.
+     *
+     * @return whether to continue enumerating
+     */
+    private boolean search(int start, int first) {
+        for (int i = 0; i < numTouched; i++) {
+            final int vertex = touched[i];
+            blocked[vertex] = false;
+            blockedByCounts[vertex] = 0;
+            isTouched[vertex] = false;
+        }
+        numTouched = 0;
+
+        path[0] = start;
+        int depth = 1;
+        push(first, depth++);
+        while (depth > 1) {
+            if (--stepsUntilCancelCheck == 0) {
+                stepsUntilCancelCheck = CANCEL_CHECK_INTERVAL;
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+            }
+
+            final int top = depth - 1;
+            final int vertex = path[top];
+            if (positions[top] < graph.neighborsEnd(vertex)) {
+                final int next = graph.neighbor(positions[top]++);
+                if (next == start) {
+                    if (top >= 2) {
+                        found[top] = true;
+                        if (path[1] < vertex && !visitor.visit(path, depth)) {
+                            return false;
+                        }
+                    }
+                } else if (next > start && !blocked[next]) {
+                    push(next, depth++);
+                }
+                continue;
+            }
+
+            // Every neighbor has been explored so the vertex leaves the path
+            if (found[top]) {
+                unblock(vertex);
+            } else {
+                for (int i = graph.neighborsStart(vertex); i < graph.neighborsEnd(vertex); i++) {
+                    final int neighbor = graph.neighbor(i);
+                    if (neighbor > start) {
+                        addBlockedBy(neighbor, vertex);
+                    }
+                }
+            }
+            depth--;
+            if (depth > 1 && found[top]) {
+                found[top - 1] = true;
+            }
+        }
+        return true;
+    }
+
+    private void push(int vertex, int depth) {
+        path[depth] = vertex;
+        positions[depth] = graph.neighborsStart(vertex);
+        found[depth] = false;
+        blocked[vertex] = true;
+        touch(vertex);
+    }
+
+    private void unblock(int vertex) {
+        int size = 0;
+        unblockStack[size++] = vertex;
+        blocked[vertex] = false;
+        while (size > 0) {
+            final int current = unblockStack[--size];
+            for (int i = 0; i < blockedByCounts[current]; i++) {
+                final int dependent = blockedBy[current][i];
+                if (blocked[dependent]) {
+                    blocked[dependent] = false;
+                    unblockStack[size++] = dependent;
+                }
+            }
+            blockedByCounts[current] = 0;
+        }
+    }
+
+    private void addBlockedBy(int vertex, int dependent) {
+        int[] dependents = blockedBy[vertex];
+        final int count = blockedByCounts[vertex];
+        for (int i = 0; i < count; i++) {
+            if (dependents[i] == dependent) {
+                return;
+            }
+        }
+
+        if (dependents == null || count == dependents.length) {
+            dependents = dependents == null ? new int[4] : Arrays.copyOf(dependents, count * 2);
+            blockedBy[vertex] = dependents;
+        }
+        dependents[count] = dependent;
+        blockedByCounts[vertex] = count + 1;
+        touch(vertex);
+    }
+
+    private void touch(int vertex) {
+        if (!isTouched[vertex]) {
+            isTouched[vertex] = true;
+            touched[numTouched++] = vertex;
+        }
+    }
+}
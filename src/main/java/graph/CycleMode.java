@@ -0,0 +1,21 @@
+package graph;
+
+/**
+ * The ways the cycles of a graph can be counted. The number of cycles grows exponentially with the
+ * number of connections so only the bounded mode is safe for graphs of any size.
+ */
+public enum CycleMode {
+    /**
+     * Finds and keeps every cycle so that the cycles themselves can be inspected.
+     */
+    ENUMERATE,
+    /**
+     * Counts every cycle without keeping them.
+     */
+    COUNT,
+    /**
+     * Counts cycles until a limit or a time budget is reached, after which the count is only a
+     * lower bound.
+     */
+    BOUNDED
+}
@@ -0,0 +1,92 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+
+/**
+ * Colors a component with the DSATUR heuristic which repeatedly colors the vertex whose neighbors
+ * already use the most distinct colors, breaking ties by degree. The result is not guaranteed to be
+ * optimal but it is for bipartite graphs, cycles and many other common graphs.
+ */
+final class DsaturColoring {
+
+    private DsaturColoring() {
+    }
+
+    /**
+     * Colors the given component.
+     *
+     * @param graph the component
+     *
+     * @return the color of every vertex of the component indexed by local index
+     */
+    static int[] color(ComponentGraph graph) {
+        final int size = graph.size();
+        final int[] colors = new int[size];
+        Arrays.fill(colors, -1);
+
+        final BitSet[] neighborColors = new BitSet[size];
+        final int[] saturation = new int[size];
+        final long degreeRange = graph.maxDegree() + 1;
+
+        // Entries are keyed by saturation and degree and become stale once the saturation of
+        // their vertex changes, in which case a fresher entry will have been queued
+        final PriorityQueue<long[]> queue = new PriorityQueue<>(Math.max(1, size),
+                (a, b) -> Long.compare(b[0], a[0]));
+        for (int v = 0; v < size; v++) {
+            neighborColors[v] = new BitSet();
+            queue.add(new long[]{graph.degree(v), v});
+        }
+
+        final int[] marks = new int[graph.maxDegree() + 2];
+        Arrays.fill(marks, -1);
+        while (!queue.isEmpty()) {
+            final long[] entry = queue.poll();
+            final int v = (int) entry[1];
+            if (colors[v] >= 0 || entry[0] / degreeRange != saturation[v]) {
+                continue;
+            }
+
+            final int color = smallestAvailableColor(graph, colors, v, marks);
+            colors[v] = color;
+
+            for (int i = graph.neighborsStart(v); i < graph.neighborsEnd(v); i++) {
+                final int w = graph.neighbor(i);
+                if (colors[w] < 0 && !neighborColors[w].get(color)) {
+                    neighborColors[w].set(color);
+                    saturation[w]++;
+                    queue.add(new long[]{saturation[w] * degreeRange + graph.degree(w), w});
+                }
+            }
+        }
+
+        return colors;
+    }
+
+    /**
+     * Returns the smallest color that no colored neighbor of the given vertex uses.
+     *
+     * @param graph the component
+     * @param colors the current colors indexed by local index with {@code -1} for uncolored
+     * @param v the local index of the vertex
+     * @param marks scratch space of at least the maximum degree plus two entries
+     *
+     * @return the smallest available color
+     */
+    static int smallestAvailableColor(ComponentGraph graph, int[] colors, int v, int[] marks) {
+        for (int i = graph.neighborsStart(v); i < graph.neighborsEnd(v); i++) {
+            final int neighborColor = colors[graph.neighbor(i)];
+            // A vertex never needs a color larger than its degree
+            if (neighborColor >= 0 && neighborColor < marks.length) {
+                marks[neighborColor] = v;
+            }
+        }
+
+        int color = 0;
+        while (marks[color] == v) {
+            color++;
+        }
+        return color;
+    }
+}
@@ -0,0 +1,572 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds an optimal coloring of a component with a DSATUR based branch and bound search.
+ * <p>
+ * Vertices with fewer neighbors than the size of the largest known clique can always be colored
+ * last, so they are peeled away first. The remaining core is split into its biconnected blocks
+ * because the chromatic number of a graph is the largest chromatic number of its blocks and the
+ * block colorings can be glued together at the cut vertices by renaming colors. Only blocks that
+ * might need more colors than are already known to be required are searched.
+ * <p>
+ * Within a block the DSATUR heuristic provides the initial upper bound and a greedily grown clique
+ * provides the lower bound, so the search ends as soon as the two meet. The vertices of the clique
+ * are colored up front which also removes the solutions that only differ by a renaming of colors.
+ * <p>
+ * When the search runs inside a {@link ForkJoinPool} the first few levels of the search tree below
+ * the clique are split into subtrees that are searched in parallel and share the best coloring
+ * found so far, so that a better coloring found in one subtree immediately prunes the others.
+ * <p>
+ * Components with more than {@link #VERTEX_BUDGET} vertices are colored with DSATUR alone and the
+ * search is abandoned after {@link #TIME_BUDGET_MILLIS} milliseconds, in which case the best
+ * coloring found so far is used. In both cases the coloring may not be optimal.
+ */
+final class ExactColoring {
+    static final int VERTEX_BUDGET = 5000;
+    static final long TIME_BUDGET_MILLIS = 2000;
+
+    // How many search nodes are visited between checks of the clock and for cancellation
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+    // How many levels below the clique are split into parallel subtrees
+    private static final int SPLIT_DEPTH = 4;
+    // Subtrees with fewer uncolored vertices than this are searched on the current thread
+    private static final int SPLIT_MIN_VERTICES = 32;
+
+    private final ComponentGraph graph;
+    private final int size;
+
+    private final int[] colors;
+    private final int[] saturation;
+    // Number of neighbors of each vertex using each color, stored with a stride of colorRange
+    private final int[] neighborColorCounts;
+    private final int colorRange;
+
+    private final Incumbent incumbent;
+    private final int lowerBound;
+    private int splitUntil;
+
+    private final long deadline;
+    private final BooleanSupplier cancelled;
+    private int nodesUntilClockCheck = CLOCK_CHECK_INTERVAL;
+
+    private ExactColoring(ComponentGraph graph, int[] initialColors, int lowerBound,
+            long deadline, BooleanSupplier cancelled) {
+        this.graph = graph;
+        this.deadline = deadline;
+        this.cancelled = cancelled;
+        size = graph.size();
+
+        incumbent = new Incumbent(initialColors);
+        this.lowerBound = lowerBound;
+
+        colorRange = incumbent.upperBound;
+        colors = new int[size];
+        Arrays.fill(colors, -1);
+        saturation = new int[size];
+        neighborColorCounts = new int[size * colorRange];
+    }
+
+    private ExactColoring(ExactColoring search) {
+        graph = search.graph;
+        deadline = search.deadline;
+        cancelled = search.cancelled;
+        size = search.size;
+
+        incumbent = search.incumbent;
+        lowerBound = search.lowerBound;
+        splitUntil = search.splitUntil;
+
+        colorRange = search.colorRange;
+        colors = search.colors.clone();
+        saturation = search.saturation.clone();
+        neighborColorCounts = search.neighborColorCounts.clone();
+    }
+
+    /**
+     * The best coloring found so far, shared by all subtrees of a search.
+     */
+    private static final class Incumbent {
+        private volatile int upperBound;
+        private volatile boolean timedOut;
+        private int[] bestColors;
+
+        private Incumbent(int[] initialColors) {
+            bestColors = initialColors;
+            upperBound = numberOfColors(initialColors);
+        }
+
+        private synchronized void improve(int[] colors, int numColors) {
+            if (numColors < upperBound) {
+                bestColors = colors.clone();
+                upperBound = numColors;
+            }
+        }
+
+        private synchronized int[] getBestColors() {
+            return bestColors;
+        }
+    }
+
+    /**
+     * Colors the given component using as few colors as possible within the budgets.
+     *
+     * @param graph the component
+     *
+     * @return the coloring
+     */
+    static Coloring color(ComponentGraph graph) {
+        return color(graph, () -> false);
+    }
+
+    /**
+     * Colors the given component using as few colors as possible within the budgets, giving up
+     * once the given condition holds.
+     *
+     * @param graph the component
+     * @param cancelled whether the coloring is no longer needed
+     *
+     * @return the coloring
+     *
+     * @throws CancellationException if the coloring was given up
+     */
+    static Coloring color(ComponentGraph graph, BooleanSupplier cancelled) {
+        final int[] heuristicColors = DsaturColoring.color(graph);
+        final int upperBound = numberOfColors(heuristicColors);
+        if (graph.size() > VERTEX_BUDGET) {
+            return Coloring.ofHeuristic(graph, heuristicColors);
+        }
+
+        int requiredColors = findClique(graph).length;
+        if (requiredColors >= upperBound) {
+            return new Coloring(heuristicColors, true);
+        }
+
+        final int[] peelOrder = peel(graph, requiredColors);
+        final boolean[] inCore = new boolean[graph.size()];
+        Arrays.fill(inCore, true);
+        for (final int v : peelOrder) {
+            inCore[v] = false;
+        }
+
+        // Blocks that cannot raise the number of required colors keep their heuristic coloring
+        final long deadline = System.nanoTime() + TIME_BUDGET_MILLIS * 1000000;
+        boolean optimal = true;
+        final List<int[]> blocks = findBlocks(graph, inCore);
+        final List<int[]> blockColors = new ArrayList<>(blocks.size());
+        for (final int[] block : blocks) {
+            final ComponentGraph blockGraph = graph.induced(block);
+            int[] coloring = DsaturColoring.color(blockGraph);
+            // Once the time budget is spent the remaining blocks keep their heuristic coloring
+            if (optimal && numberOfColors(coloring) > requiredColors) {
+                final ExactColoring search = new ExactColoring(blockGraph, coloring,
+                        Math.max(requiredColors, findClique(blockGraph).length), deadline,
+                        cancelled);
+                search.solve();
+                coloring = search.incumbent.getBestColors();
+                optimal = !search.incumbent.timedOut;
+            }
+            requiredColors = Math.max(requiredColors, numberOfColors(coloring));
+            blockColors.add(coloring);
+        }
+
+        if (requiredColors >= upperBound) {
+            return new Coloring(heuristicColors, optimal);
+        }
+
+        final int[] colors = mergeBlocks(graph, blocks, blockColors);
+        final int[] marks = new int[graph.maxDegree() + 2];
+        Arrays.fill(marks, -1);
+        for (int i = peelOrder.length - 1; i >= 0; i--) {
+            colors[peelOrder[i]] = DsaturColoring.smallestAvailableColor(graph, colors,
+                    peelOrder[i], marks);
+        }
+        return new Coloring(colors, optimal);
+    }
+
+    private void solve() {
+        if (lowerBound >= incumbent.upperBound) {
+            return;
+        }
+
+        final int[] clique = findClique(graph);
+        for (int i = 0; i < clique.length; i++) {
+            assign(clique[i], i);
+        }
+        // Splitting only pays off when there are other workers to pick up the subtrees
+        splitUntil = ForkJoinTask.inForkJoinPool() ? clique.length + SPLIT_DEPTH : 0;
+        search(clique.length, clique.length);
+    }
+
+    private void search(int numColored, int numColors) {
+        if (--nodesUntilClockCheck == 0) {
+            nodesUntilClockCheck = CLOCK_CHECK_INTERVAL;
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                incumbent.timedOut = true;
+            }
+        }
+        if (incumbent.timedOut) {
+            return;
+        }
+
+        if (numColored == size) {
+            incumbent.improve(colors, numColors);
+            return;
+        }
+
+        final int v = selectVertex();
+        if (numColored < splitUntil && size - numColored >= SPLIT_MIN_VERTICES) {
+            split(v, numColored, numColors);
+            return;
+        }
+
+        for (int color = 0; color <= colorLimit(numColors); color++) {
+            if (neighborColorCounts[v * colorRange + color] > 0) {
+                continue;
+            }
+
+            assign(v, color);
+            search(numColored + 1, Math.max(numColors, color + 1));
+            unassign(v, color);
+
+            if (incumbent.upperBound <= lowerBound || incumbent.timedOut) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Searches the subtrees for every color of the given vertex in parallel, each on its own copy
+     * of the search state.
+     */
+    private void split(int v, int numColored, int numColors) {
+        final List<RecursiveAction> subtrees = new ArrayList<>();
+        for (int color = 0; color <= colorLimit(numColors); color++) {
+            if (neighborColorCounts[v * colorRange + color] > 0) {
+                continue;
+            }
+
+            final ExactColoring subtree = new ExactColoring(this);
+            subtree.assign(v, color);
+            final int subtreeColors = Math.max(numColors, color + 1);
+            subtrees.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    // The bound may have improved while the subtree was waiting for a worker
+                    if (subtreeColors < incumbent.upperBound &&
+                            incumbent.upperBound > lowerBound) {
+                        subtree.search(numColored + 1, subtreeColors);
+                    }
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(subtrees);
+    }
+
+    private int colorLimit(int numColors) {
+        // Only colors that would lead to a better coloring than the best one are worth trying
+        return Math.min(numColors, incumbent.upperBound - 2);
+    }
+
+    private int selectVertex() {
+        int selected = -1;
+        for (int v = 0; v < size; v++) {
+            if (colors[v] < 0 && (selected < 0 || saturation[v] > saturation[selected] ||
+                    (saturation[v] == saturation[selected] &&
+                            graph.degree(v) > graph.degree(selected)))) {
+                selected = v;
+            }
+        }
+        return selected;
+    }
+
+    private void assign(int v, int color) {
+        colors[v] = color;
+        for (int i = graph.neighborsStart(v); i < graph.neighborsEnd(v); i++) {
+            if (neighborColorCounts[graph.neighbor(i) * colorRange + color]++ == 0) {
+                saturation[graph.neighbor(i)]++;
+            }
+        }
+    }
+
+    private void unassign(int v, int color) {
+        colors[v] = -1;
+        for (int i = graph.neighborsStart(v); i < graph.neighborsEnd(v); i++) {
+            if (--neighborColorCounts[graph.neighbor(i) * colorRange + color] == 0) {
+                saturation[graph.neighbor(i)]--;
+            }
+        }
+    }
+
+    /**
+     * Greedily grows a clique from every vertex, adding neighbors in order of decreasing degree,
+     * and returns the largest clique found.
+     *
+     * @param graph the component
+     *
+     * @return the local indices of the vertices of the clique
+     */
+    static int[] findClique(ComponentGraph graph) {
+        if (graph.size() == 0) {
+            return new int[0];
+        }
+
+        int[] largest = new int[]{0};
+        final int[] clique = new int[graph.maxDegree() + 1];
+        for (int start = 0; start < graph.size(); start++) {
+            // A clique containing the start vertex can be no larger than its degree plus one
+            if (graph.degree(start) + 1 <= largest.length) {
+                continue;
+            }
+
+            final Integer[] candidates = new Integer[graph.degree(start)];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = graph.neighbor(graph.neighborsStart(start) + i);
+            }
+            Arrays.sort(candidates, (a, b) -> Integer.compare(graph.degree(b), graph.degree(a)));
+
+            int cliqueSize = 0;
+            clique[cliqueSize++] = start;
+            for (final int candidate : candidates) {
+                boolean adjacentToAll = true;
+                for (int i = 1; i < cliqueSize && adjacentToAll; i++) {
+                    adjacentToAll = graph.adjacent(candidate, clique[i]);
+                }
+                if (adjacentToAll) {
+                    clique[cliqueSize++] = candidate;
+                }
+            }
+
+            if (cliqueSize > largest.length) {
+                largest = Arrays.copyOf(clique, cliqueSize);
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Repeatedly removes vertices with fewer than the given number of remaining neighbors. Such
+     * vertices can always be colored with that many colors once the rest of the graph is colored,
+     * as long as they are colored in the reverse of the order they were removed.
+     *
+     * @param graph the component
+     * @param numColors the number of colors the graph is known to need
+     *
+     * @return the local indices of the removed vertices in the order they were removed
+     */
+    private static int[] peel(ComponentGraph graph, int numColors) {
+        final int[] degrees = new int[graph.size()];
+        final int[] order = new int[graph.size()];
+        int removed = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            degrees[v] = graph.degree(v);
+            if (degrees[v] < numColors) {
+                order[removed++] = v;
+            }
+        }
+
+        // The removal order doubles as the queue of vertices whose neighbors need updating
+        for (int next = 0; next < removed; next++) {
+            final int v = order[next];
+            for (int i = graph.neighborsStart(v); i < graph.neighborsEnd(v); i++) {
+                final int w = graph.neighbor(i);
+                if (degrees[w]-- == numColors) {
+                    order[removed++] = w;
+                }
+            }
+        }
+        return Arrays.copyOf(order, removed);
+    }
+
+    /**
+     * Finds the biconnected blocks of the subgraph induced by the given vertices.
+     *
+     * @param graph the component
+     * @param included whether each vertex is part of the subgraph
+     *
+     * @return the local indices of the vertices of every block
+     */
+    private static List<int[]> findBlocks(ComponentGraph graph, boolean[] included) {
+        final int size = graph.size();
+        final List<int[]> blocks = new ArrayList<>();
+        final int[] discovered = new int[size];
+        final int[] low = new int[size];
+        final int[] parent = new int[size];
+        final int[] position = new int[size];
+        final int[] marks = new int[size];
+        Arrays.fill(discovered, -1);
+        Arrays.fill(marks, -1);
+
+        // Depth-first search with an explicit stack so that long paths cannot overflow the stack
+        final int[] stack = new int[size];
+        int[] edgeStack = new int[16];
+        int edges = 0;
+        int time = 0;
+        for (int root = 0; root < size; root++) {
+            if (!included[root] || discovered[root] >= 0) {
+                continue;
+            }
+
+            int depth = 0;
+            stack[depth++] = root;
+            discovered[root] = low[root] = time++;
+            parent[root] = -1;
+            position[root] = graph.neighborsStart(root);
+            while (depth > 0) {
+                final int v = stack[depth - 1];
+                if (position[v] < graph.neighborsEnd(v)) {
+                    final int w = graph.neighbor(position[v]++);
+                    if (!included[w]) {
+                        continue;
+                    }
+                    if (discovered[w] < 0) {
+                        if (edges + 2 > edgeStack.length) {
+                            edgeStack = Arrays.copyOf(edgeStack, edgeStack.length * 2);
+                        }
+                        edgeStack[edges++] = v;
+                        edgeStack[edges++] = w;
+                        parent[w] = v;
+                        discovered[w] = low[w] = time++;
+                        position[w] = graph.neighborsStart(w);
+                        stack[depth++] = w;
+                    } else if (w != parent[v] && discovered[w] < discovered[v]) {
+                        if (edges + 2 > edgeStack.length) {
+                            edgeStack = Arrays.copyOf(edgeStack, edgeStack.length * 2);
+                        }
+                        edgeStack[edges++] = v;
+                        edgeStack[edges++] = w;
+                        low[v] = Math.min(low[v], discovered[w]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                final int p = parent[v];
+                if (p < 0) {
+                    continue;
+                }
+                low[p] = Math.min(low[p], low[v]);
+                if (low[v] >= discovered[p]) {
+                    // The parent separates the subtree of v so its edges form a block
+                    final int blockId = blocks.size();
+                    int[] block = new int[4];
+                    int blockSize = 0;
+                    int start;
+                    int end;
+                    do {
+                        end = edgeStack[--edges];
+                        start = edgeStack[--edges];
+                        for (final int u : new int[]{start, end}) {
+                            if (marks[u] != blockId) {
+                                marks[u] = blockId;
+                                if (blockSize == block.length) {
+                                    block = Arrays.copyOf(block, blockSize * 2);
+                                }
+                                block[blockSize++] = u;
+                            }
+                        }
+                    } while (start != p || end != v);
+                    blocks.add(Arrays.copyOf(block, blockSize));
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Combines the colorings of the given blocks into a single coloring by renaming the colors of
+     * each block so that it agrees with the blocks already colored at their shared cut vertex.
+     *
+     * @param graph the component
+     * @param blocks the local indices of the vertices of every block
+     * @param blockColors the coloring of every block indexed by the local indices of the block
+     *
+     * @return the combined coloring with {@code -1} for vertices outside every block
+     */
+    private static int[] mergeBlocks(ComponentGraph graph, List<int[]> blocks,
+            List<int[]> blockColors) {
+        final int[] colors = new int[graph.size()];
+        Arrays.fill(colors, -1);
+
+        // The blocks containing each vertex so that neighboring blocks can be found
+        final List<List<Integer>> vertexBlocks = new ArrayList<>(graph.size());
+        for (int v = 0; v < graph.size(); v++) {
+            vertexBlocks.add(new ArrayList<>(1));
+        }
+        for (int b = 0; b < blocks.size(); b++) {
+            for (final int v : blocks.get(b)) {
+                vertexBlocks.get(v).add(b);
+            }
+        }
+
+        // The blocks of each connected piece form a tree so every block reached through the
+        // traversal shares exactly one vertex with the blocks colored before it
+        final boolean[] merged = new boolean[blocks.size()];
+        final int[] queue = new int[blocks.size()];
+        for (int first = 0; first < blocks.size(); first++) {
+            if (merged[first]) {
+                continue;
+            }
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = first;
+            merged[first] = true;
+            while (head < tail) {
+                final int b = queue[head++];
+                final int[] block = blocks.get(b).clone();
+                Arrays.sort(block);
+                final int[] coloring = blockColors.get(b);
+
+                int from = -1;
+                int to = -1;
+                for (int i = 0; i < block.length; i++) {
+                    if (colors[block[i]] >= 0) {
+                        from = coloring[i];
+                        to = colors[block[i]];
+                    }
+                }
+                for (int i = 0; i < block.length; i++) {
+                    final int color = coloring[i];
+                    colors[block[i]] = color == from ? to : color == to ? from : color;
+                }
+
+                for (final int v : block) {
+                    for (final int next : vertexBlocks.get(v)) {
+                        if (!merged[next]) {
+                            merged[next] = true;
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Returns the number of colors used by the given coloring.
+     *
+     * @param colors the coloring
+     *
+     * @return the number of colors
+     */
+    static int numberOfColors(int[] colors) {
+        int maxColor = -1;
+        for (final int color : colors) {
+            maxColor = Math.max(maxColor, color);
+        }
+        return maxColor + 1;
+    }
+}
@@ -1,28 +1,66 @@
 package graph;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a graph including all the connections and vertices of the graph.
  */
 public class Graph {
-    private final ConnectionManager connectionManager = new ConnectionManager(this);
-    private final ConnectionVisualizer connectionVisualizer = new ConnectionVisualizer(
-            connectionManager);
-    private final VertexManager vertexManager = new VertexManager(this);
-    private final VertexVisualizer vertexVisualizer = new VertexVisualizer(vertexManager);
+    private final ConnectionManager connectionManager;
+    private final ConnectionVisualizer connectionVisualizer;
+    private final VertexManager vertexManager;
+    private final VertexVisualizer vertexVisualizer;
     private final ColorManager colorManager = new ColorManager(this);
     private final PropertyManager propertyManager = new PropertyManager(this);
 
-    private final Queue<StructuralChange> structuralChanges = new LinkedList<>();
+    // Every change since the last check is merged so that each check recalculates at most once
+    private final Set<Vertex> changedVertices = new HashSet<>();
+    private final Set<Connection> connectionsAdded = new HashSet<>();
+    private boolean structurallyChanged = false;
+    private boolean onlyConnectionsAdded = true;
+    private boolean notificationsSuppressed = false;
+
+    // The items highlighted for removal, which are the only ones that need to be unhighlighted
+    private final List<Vertex> highlightedVertices = new ArrayList<>(1);
+    private final List<Connection> highlightedConnections = new ArrayList<>();
+
+    private final AtomicLong sceneVersion = new AtomicLong();
 
     private static final double REMOVAL_DISTANCE = 5.0;
 
+    /**
+     * Constructs an empty graph.
+     */
+    public Graph() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructs an empty graph with room for the given number of vertices and connections.
+     *
+     * @param expectedVertices the expected number of vertices
+     * @param expectedConnections the expected number of connections
+     */
+    Graph(int expectedVertices, int expectedConnections) {
+        connectionManager = new ConnectionManager(this, expectedVertices, expectedConnections);
+        connectionVisualizer = new ConnectionVisualizer(connectionManager);
+        vertexManager = new VertexManager(this, expectedVertices);
+        vertexVisualizer = new VertexVisualizer(vertexManager);
+    }
+
     ConnectionManager getConnectionManager() {
         return connectionManager;
     }
@@ -65,6 +103,47 @@ public class Graph {
         return vertexManager.getVertex(ID);
     }
 
+    /**
+     * Returns a vertex containing the given position or {@code null} if the position is not
+     * within any vertex.
+     *
+     * @param position the position
+     *
+     * @return a vertex containing the position
+     */
+    public Vertex getVertexAt(CanvasPosition position) {
+        final List<Vertex> vertices = vertexManager.getVerticesAt(position);
+        return vertices.isEmpty() ? null : vertices.get(0);
+    }
+
+    /**
+     * Returns the vertices whose centers are closer to the given position than the given
+     * distance.
+     *
+     * @param position the position
+     * @param distance the distance
+     *
+     * @return the vertices near the position
+     */
+    public List<Vertex> getVerticesWithin(CanvasPosition position, double distance) {
+        return vertexManager.getVerticesWithin(position, distance);
+    }
+
+    /**
+     * Returns the vertex whose center is closest to the given position among the vertices closer
+     * than the given distance, or {@code null} if there is none.
+     *
+     * @param position the position
+     * @param maximumDistance the distance the center of the vertex must be closer than
+     * @param excluded a vertex to leave out of the search, or {@code null}
+     *
+     * @return the closest vertex
+     */
+    public Vertex getNearestVertex(CanvasPosition position, double maximumDistance,
+            Vertex excluded) {
+        return vertexManager.getNearestVertex(position, maximumDistance, excluded);
+    }
+
     /**
      * Adds a vertex to the graph at the given position.
      *
@@ -155,13 +234,61 @@ public class Graph {
         return colorManager.numberOfColors();
     }
 
+    /**
+     * Returns whether the number of colors is known to be the smallest possible. If not, the
+     * number of colors is only an upper bound.
+     *
+     * @return whether the number of colors is optimal
+     */
+    public boolean isNumberOfColorsOptimal() {
+        return colorManager.isNumberOfColorsOptimal();
+    }
+
+    /**
+     * Returns the strategy used to color the graph.
+     *
+     * @return the coloring strategy
+     */
+    public ColoringStrategy getColoringStrategy() {
+        return colorManager.getStrategy();
+    }
+
+    /**
+     * Sets the strategy used to color the graph and recolors the whole graph with it.
+     *
+     * @param strategy the coloring strategy
+     */
+    public void setColoringStrategy(ColoringStrategy strategy) {
+        colorManager.setStrategy(strategy);
+        structurallyChanged(getVertices());
+    }
+
+    /**
+     * Sets the pool that the graph is colored on. Defaults to the common pool.
+     *
+     * @param coloringPool the coloring pool
+     */
+    public void setColoringPool(ForkJoinPool coloringPool) {
+        colorManager.setColoringPool(coloringPool);
+    }
+
+    /**
+     * Returns an immutable snapshot of the current structure of the graph that can be analyzed
+     * independently of later edits.
+     *
+     * @return the snapshot
+     */
+    public CompactGraph snapshot() {
+        return CompactGraph.of(this);
+    }
+
     /**
      * Notify the graph that a structural change has occurred.
      *
      * @param verticesChanged the vertices that were changed
      */
     void structurallyChanged(Vertex... verticesChanged) {
-        structuralChanges.add(new StructuralChange(verticesChanged));
+        structurallyChanged(Arrays.asList(verticesChanged));
     }
 
     /**
@@ -169,24 +296,66 @@ public class Graph {
      *
      * @param verticesChanged the vertices that were changed
      */
-    void structurallyChanged(Set<Vertex> verticesChanged) {
-        structuralChanges.add(new StructuralChange(verticesChanged));
+    void structurallyChanged(Collection<Vertex> verticesChanged) {
+        sceneChanged();
+        if (notificationsSuppressed) {
+            return;
+        }
+        changedVertices.addAll(verticesChanged);
+        structurallyChanged = true;
+        onlyConnectionsAdded = false;
     }
 
     /**
-     * Checks whether the graph has been modified structurally and if so takes appropriate actions
-     * to ensure that the graph properties are maintained.
+     * Notify the graph that the given connection has been added and nothing else has changed.
+     *
+     * @param connectionAdded the connection that was added
+     */
+    void connectionAdded(Connection connectionAdded) {
+        sceneChanged();
+        if (notificationsSuppressed) {
+            return;
+        }
+        changedVertices.add(connectionAdded.getStart());
+        changedVertices.add(connectionAdded.getEnd());
+        connectionsAdded.add(connectionAdded);
+        structurallyChanged = true;
+    }
+
+    /**
+     * Sets whether structural changes are ignored. While building a graph in bulk it is cheaper
+     * to notify the graph once that every vertex has changed after building it.
+     *
+     * @param suppressed whether structural changes are ignored
      */
-    private void checkForStructuralChanges() {
-        // If the graph has been modified we need to update properties
-        while (!structuralChanges.isEmpty()) {
-            final StructuralChange structuralChange = structuralChanges.poll();
+    void suppressNotifications(boolean suppressed) {
+        notificationsSuppressed = suppressed;
+    }
 
-            // We need to reassign colors because the modified structure of the graph may cause a
-            // new coloring
-            colorManager.assignColors(structuralChange);
-            propertyManager.calculateProperties();
+    /**
+     * Checks whether the graph has been modified structurally and if so takes appropriate actions
+     * to ensure that the graph properties are maintained. Drawing the scene does this first, but
+     * anything caching the scene should do it before reading the scene version, because repairing
+     * the coloring for a change changes the scene version again.
+     */
+    public void checkForStructuralChanges() {
+        if (!structurallyChanged) {
+            return;
         }
+
+        final StructuralChange structuralChange = new StructuralChange(changedVertices,
+                onlyConnectionsAdded ? connectionsAdded : Collections.<Connection>emptySet());
+        changedVertices.clear();
+        connectionsAdded.clear();
+        structurallyChanged = false;
+        onlyConnectionsAdded = true;
+
+        // We need to reassign colors because the modified structure of the graph may cause a new
+        // coloring, and if the graph has been modified we need to update properties. Both share a
+        // single snapshot of the graph.
+        final Supplier<CompactGraph> snapshot = Suppliers.memoize(this::snapshot);
+        colorManager.assignColors(structuralChange, snapshot);
+        propertyManager.calculateProperties(snapshot);
     }
 
     /**
@@ -197,16 +366,102 @@ public class Graph {
      * @param canvasY the y position of the canvas
      */
     public void drawGraph(Graphics g, int canvasX, int canvasY) {
+        drawScene(g, canvasX, canvasY);
+        drawHighlights(g, canvasX, canvasY);
+    }
+
+    /**
+     * Draws the current graph to the given canvas without highlighting any vertices or
+     * connections. The result only changes when the scene version of the graph changes, so it
+     * may be cached until then.
+     *
+     * @param g the canvas
+     * @param canvasX the x position of the canvas
+     * @param canvasY the y position of the canvas
+     */
+    public void drawScene(Graphics g, int canvasX, int canvasY) {
         checkForStructuralChanges();
 
-        connectionVisualizer.drawConnections(g, canvasX, canvasY);
-        vertexVisualizer.drawVertices(g, canvasX, canvasY);
+        // Only the part of the canvas being repainted needs to be drawn
+        final Rectangle clip = g.getClipBounds();
+        final Rectangle visibleArea = clip == null ? null :
+                new Rectangle(clip.x - canvasX, clip.y - canvasY, clip.width, clip.height);
+        connectionVisualizer.drawConnections(g, canvasX, canvasY, visibleArea);
+        vertexVisualizer.drawVertices(g, canvasX, canvasY, visibleArea);
+    }
+
+    /**
+     * Draws the vertices and connections highlighted for removal on top of the scene.
+     *
+     * @param g the canvas
+     * @param canvasX the x position of the canvas
+     * @param canvasY the y position of the canvas
+     */
+    public void drawHighlights(Graphics g, int canvasX, int canvasY) {
+        ConnectionVisualizer.drawSelectedConnections(g, canvasX, canvasY,
+                highlightedConnections);
+        for (Vertex vertex : highlightedVertices) {
+            vertex.draw(g, canvasX, canvasY);
+        }
+    }
+
+    /**
+     * Returns the area of the canvas covered by the vertices and connections highlighted for
+     * removal, or an empty rectangle if nothing is highlighted.
+     *
+     * @return the highlighted area
+     */
+    public Rectangle getHighlightBounds() {
+        final Rectangle bounds = new Rectangle();
+        for (Connection connection : highlightedConnections) {
+            final Vertex start = connection.getStart();
+            final Vertex end = connection.getEnd();
+            addToBounds(bounds, new Rectangle(Math.min(start.getX(), end.getX()),
+                    Math.min(start.getY(), end.getY()), Math.abs(start.getX() - end.getX()) + 1,
+                    Math.abs(start.getY() - end.getY()) + 1));
+        }
+        for (Vertex vertex : highlightedVertices) {
+            addToBounds(bounds, new Rectangle(vertex.getX() - vertex.getRadius(),
+                    vertex.getY() - vertex.getRadius(), vertex.getRadius() * 2 + 1,
+                    vertex.getRadius() * 2 + 1));
+        }
+        return bounds;
+    }
+
+    private static void addToBounds(Rectangle bounds, Rectangle area) {
+        if (bounds.isEmpty()) {
+            bounds.setBounds(area);
+        } else {
+            bounds.add(area);
+        }
+    }
+
+    /**
+     * Returns a number that changes whenever the scene drawn by {@link #drawScene} may have
+     * changed, such as when vertices move or are recolored. Pending structural changes should be
+     * applied with {@link #checkForStructuralChanges()} before reading it.
+     *
+     * @return the scene version
+     */
+    public long getSceneVersion() {
+        return sceneVersion.get();
+    }
+
+    /**
+     * Notifies the graph that the way it is drawn has changed. May be called from any thread
+     * since vertices are recolored in the background.
+     */
+    void sceneChanged() {
+        sceneVersion.incrementAndGet();
     }
 
     /**
      * Removes the highlight for all vertices and connections in the graph.
      */
     public void removeHighlights() {
+        highlightedVertices.clear();
+        highlightedConnections.clear();
+
         // Remove highlight from all of the vertices that are in range
         for (Vertex vertex : vertexManager.getVertices()) {
             vertex.deselect();
@@ -225,30 +480,37 @@ public class Graph {
      * @param position the position of the mouse
      */
     public void highlightRemovals(CanvasPosition position) {
-        // Highlight all of the vertices that are in range
-        for (Vertex vertex : vertexManager.getVertices()) {
-            if (vertex.pointInVertex(position)) {
-                vertex.select();
-                // Highlight all of the connections originating from the vertex because they will
-                // be removed as well
-                for (Connection connection : connectionManager.getVertexConnections(vertex)) {
-                    connection.select();
-                }
-                // If the user removes a vertex we will remove all edges as well so don't worry
-                // about checking them
-                return;
-            } else {
-                vertex.deselect();
-            }
+        // Only the items highlighted last time can need their highlight removed
+        for (Vertex vertex : highlightedVertices) {
+            vertex.deselect();
+        }
+        for (Connection connection : highlightedConnections) {
+            connection.deselect();
         }
+        highlightedVertices.clear();
+        highlightedConnections.clear();
 
-        //Highlight all of the connections that are in range
-        for (Connection connection : connectionManager.getConnections()) {
-            if (connection.distance(position) < REMOVAL_DISTANCE) {
+        // Highlight the vertex that is in range
+        final Vertex vertex = getVertexAt(position);
+        if (vertex != null) {
+            vertex.select();
+            highlightedVertices.add(vertex);
+            // Highlight all of the connections originating from the vertex because they will
+            // be removed as well
+            for (Connection connection : connectionManager.getVertexConnections(vertex)) {
                 connection.select();
-            } else {
-                connection.deselect();
+                highlightedConnections.add(connection);
             }
+            // If the user removes a vertex we will remove all edges as well so don't worry
+            // about checking them
+            return;
+        }
+
+        //Highlight all of the connections that are in range
+        for (Connection connection : connectionManager.getConnectionsNear(position,
+                REMOVAL_DISTANCE)) {
+            connection.select();
+            highlightedConnections.add(connection);
         }
     }
 
@@ -260,24 +522,13 @@ public class Graph {
      */
     public void remove(CanvasPosition position) {
         // Highlight all of the vertices that are in range
-        final Set<Vertex> verticesToRemove = new HashSet<>();
-        for (Vertex vertex : vertexManager.getVertices()) {
-            if (vertex.pointInVertex(position)) {
-                verticesToRemove.add(vertex);
-            }
-        }
-        for (Vertex vertex : verticesToRemove) {
+        for (Vertex vertex : vertexManager.getVerticesAt(position)) {
             removeVertex(vertex);
         }
 
         //Highlight all of the connections that are in range
-        final Set<Connection> connectionsToRemove = new HashSet<>();
-        for (Connection connection : connectionManager.getConnections()) {
-            if (connection.distance(position) < REMOVAL_DISTANCE) {
-                connectionsToRemove.add(connection);
-            }
-        }
-        for (Connection connection : connectionsToRemove) {
+        for (Connection connection : connectionManager.getConnectionsNear(position,
+                REMOVAL_DISTANCE)) {
             removeConnection(connection);
         }
     }
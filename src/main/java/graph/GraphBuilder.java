@@ -0,0 +1,132 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Collects the vertices and connections of a graph so that the graph can be built in one step.
+ * The graph is sized for its contents up front and is analyzed once after it has been built
+ * instead of after every vertex and connection.
+ */
+public final class GraphBuilder {
+    private int[] ids;
+    private int[] xs;
+    private int[] ys;
+    private int numVertices;
+
+    // The starting and ending vertex IDs of every connection, stored in consecutive pairs
+    private int[] connections;
+    private int numConnections;
+
+    /**
+     * Constructs a builder for an empty graph.
+     */
+    public GraphBuilder() {
+        this(16, 16);
+    }
+
+    /**
+     * Constructs a builder with room for the given number of vertices and connections. Adding
+     * more than that is allowed but slower.
+     *
+     * @param expectedVertices the expected number of vertices
+     * @param expectedConnections the expected number of connections
+     */
+    public GraphBuilder(int expectedVertices, int expectedConnections) {
+        ids = new int[Math.max(1, expectedVertices)];
+        xs = new int[ids.length];
+        ys = new int[ids.length];
+        connections = new int[Math.max(1, expectedConnections) * 2];
+    }
+
+    /**
+     * Adds a vertex with the given unique ID at the given position. A later vertex with the same
+     * ID replaces an earlier one.
+     *
+     * @param id the unique ID of the vertex
+     * @param x the x position of the vertex
+     * @param y the y position of the vertex
+     *
+     * @return the current builder
+     */
+    public GraphBuilder addVertex(int id, int x, int y) {
+        if (numVertices == ids.length) {
+            ids = Arrays.copyOf(ids, numVertices * 2);
+            xs = Arrays.copyOf(xs, numVertices * 2);
+            ys = Arrays.copyOf(ys, numVertices * 2);
+        }
+        ids[numVertices] = id;
+        xs[numVertices] = x;
+        ys[numVertices] = y;
+        numVertices++;
+        return this;
+    }
+
+    /**
+     * Adds a connection from the vertex with the first ID to the vertex with the second ID. The
+     * vertices must have been added by the time the graph is built.
+     *
+     * @param startID the ID of the starting vertex
+     * @param endID the ID of the ending vertex
+     *
+     * @return the current builder
+     */
+    public GraphBuilder addConnection(int startID, int endID) {
+        if (numConnections * 2 == connections.length) {
+            connections = Arrays.copyOf(connections, connections.length * 2);
+        }
+        connections[numConnections * 2] = startID;
+        connections[numConnections * 2 + 1] = endID;
+        numConnections++;
+        return this;
+    }
+
+    /**
+     * Returns the number of vertices added so far.
+     *
+     * @return the number of vertices
+     */
+    public int numberOfVertices() {
+        return numVertices;
+    }
+
+    /**
+     * Returns the number of connections added so far.
+     *
+     * @return the number of connections
+     */
+    public int numberOfConnections() {
+        return numConnections;
+    }
+
+    /**
+     * Builds the graph from the vertices and connections added so far.
+     *
+     * @return the graph
+     *
+     * @throws IllegalStateException if a connection refers to a vertex that was not added
+     */
+    public Graph build() {
+        final Graph graph = new Graph(numVertices, numConnections);
+        graph.suppressNotifications(true);
+        try {
+            for (int i = 0; i < numVertices; i++) {
+                graph.createVertex(ids[i], new CanvasPosition(xs[i], ys[i]));
+            }
+            for (int i = 0; i < numConnections; i++) {
+                final Vertex start = graph.getVertex(connections[i * 2]);
+                final Vertex end = graph.getVertex(connections[i * 2 + 1]);
+                if (start == null || end == null) {
+                    throw new IllegalStateException("Connection from vertex " +
+                            connections[i * 2] + " to vertex " + connections[i * 2 + 1] +
+                            " refers to a vertex that does not exist");
+                }
+                graph.addConnection(start, end);
+            }
+        } finally {
+            graph.suppressNotifications(false);
+        }
+
+        graph.structurallyChanged(graph.getVertices());
+        return graph;
+    }
+}
@@ -0,0 +1,168 @@
+package graph;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * An immutable record of the properties of a graph at the time a snapshot of it was taken. Because
+ * it never changes it can be read from any thread while newer properties are being calculated.
+ */
+public final class GraphProperties {
+    /**
+     * The properties of a graph without any vertices.
+     */
+    static final GraphProperties EMPTY = new GraphProperties(0, 0, true, true, false, true, 0)
+            .withCycles(0, true, ImmutableList.of());
+
+    private final int numberOfVertices;
+    private final int maxDegree;
+    private final boolean bipartite;
+    private final boolean connected;
+    private final boolean tree;
+    private final boolean regular;
+    private final int girth;
+
+    private final int numCycles;
+    private final boolean cycleCountExact;
+    private final ImmutableList<Cycle> cycles;
+
+    /**
+     * Constructs the properties of a graph whose cycles have not been counted.
+     *
+     * @param numberOfVertices the number of vertices
+     * @param maxDegree the maximum degree
+     * @param bipartite whether the graph is bipartite
+     * @param connected whether the graph is connected
+     * @param tree whether the graph is a tree
+     * @param regular whether the graph is regular
+     * @param girth the girth
+     */
+    GraphProperties(int numberOfVertices, int maxDegree, boolean bipartite, boolean connected,
+            boolean tree, boolean regular, int girth) {
+        this(numberOfVertices, maxDegree, bipartite, connected, tree, regular, girth, 0, false,
+                ImmutableList.of());
+    }
+
+    private GraphProperties(int numberOfVertices, int maxDegree, boolean bipartite,
+            boolean connected, boolean tree, boolean regular, int girth, int numCycles,
+            boolean cycleCountExact, ImmutableList<Cycle> cycles) {
+        this.numberOfVertices = numberOfVertices;
+        this.maxDegree = maxDegree;
+        this.bipartite = bipartite;
+        this.connected = connected;
+        this.tree = tree;
+        this.regular = regular;
+        this.girth = girth;
+        this.numCycles = numCycles;
+        this.cycleCountExact = cycleCountExact;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Returns a copy of the current properties with the given cycle count.
+     *
+     * @param numCycles the number of cycles counted
+     * @param cycleCountExact whether every cycle was counted
+     * @param cycles the cycles that were kept
+     *
+     * @return the properties including the cycles
+     */
+    GraphProperties withCycles(int numCycles, boolean cycleCountExact, List<Cycle> cycles) {
+        return new GraphProperties(numberOfVertices, maxDegree, bipartite, connected, tree,
+                regular, girth, numCycles, cycleCountExact, ImmutableList.copyOf(cycles));
+    }
+
+    /**
+     * Returns the maximum degree of any of the vertices of the graph.
+     *
+     * @return the maximum degree
+     */
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Returns whether the graph is bipartite.
+     *
+     * @return whether the graph is bipartite
+     */
+    public boolean isBipartite() {
+        return bipartite;
+    }
+
+    /**
+     * Returns whether the graph is connected.
+     *
+     * @return whether the graph is connected
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Returns whether the graph is a tree.
+     *
+     * @return whether the graph is a tree
+     */
+    public boolean isTree() {
+        return tree;
+    }
+
+    /**
+     * Returns whether the graph is regular.
+     *
+     * @return whether the graph is regular
+     */
+    public boolean isRegular() {
+        return regular;
+    }
+
+    /**
+     * Returns whether the graph is complete.
+     *
+     * @return whether the graph is complete
+     */
+    public boolean isComplete() {
+        return maxDegree == numberOfVertices - 1 && regular;
+    }
+
+    /**
+     * Returns the girth of the graph, which is the length of its shortest cycle or zero if the
+     * graph has no cycles.
+     *
+     * @return the girth of the graph
+     */
+    public int getGirth() {
+        return girth;
+    }
+
+    /**
+     * Returns the number of cycles in the graph. If the count is not exact it is a lower bound.
+     *
+     * @return the number of cycles in the graph
+     */
+    public int numCycles() {
+        return numCycles;
+    }
+
+    /**
+     * Returns whether every cycle was counted. If not, the graph has at least {@link
+     * #numCycles()} cycles.
+     *
+     * @return whether the number of cycles is exact
+     */
+    public boolean isCycleCountExact() {
+        return cycleCountExact;
+    }
+
+    /**
+     * Returns the cycles of the graph. The cycles are only kept in the {@link
+     * CycleMode#ENUMERATE} mode.
+     *
+     * @return the cycles
+     */
+    public List<Cycle> getCycles() {
+        return cycles;
+    }
+}
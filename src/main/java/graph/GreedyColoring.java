@@ -0,0 +1,46 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Colors a component greedily, visiting vertices in order of decreasing degree (largest first)
+ * and giving each the smallest color none of its neighbors use.
+ */
+final class GreedyColoring {
+
+    private GreedyColoring() {
+    }
+
+    /**
+     * Colors the given component.
+     *
+     * @param graph the component
+     *
+     * @return the color of every vertex of the component indexed by local index
+     */
+    static int[] color(ComponentGraph graph) {
+        final int size = graph.size();
+
+        // Counting sort of the vertices by decreasing degree
+        final int[] counts = new int[graph.maxDegree() + 2];
+        for (int v = 0; v < size; v++) {
+            counts[graph.maxDegree() - graph.degree(v) + 1]++;
+        }
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+        final int[] order = new int[size];
+        for (int v = 0; v < size; v++) {
+            order[counts[graph.maxDegree() - graph.degree(v)]++] = v;
+        }
+
+        final int[] colors = new int[size];
+        Arrays.fill(colors, -1);
+        final int[] marks = new int[graph.maxDegree() + 2];
+        Arrays.fill(marks, -1);
+        for (final int v : order) {
+            colors[v] = DsaturColoring.smallestAvailableColor(graph, colors, v, marks);
+        }
+        return colors;
+    }
+}
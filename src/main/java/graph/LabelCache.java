@@ -0,0 +1,109 @@
+package graph;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the laid out glyphs of vertex ID labels so that the text of a label is only laid out the
+ * first time it is drawn. The layout depends on how text is rendered, so labels are kept
+ * separately for every font render context they are drawn with, such as that of the cached scene
+ * and that of the screen. The least recently drawn labels are evicted once the labels of a
+ * context fill up, and the least recently used context is dropped once there are too many. Only
+ * to be used from the event dispatch thread.
+ */
+final class LabelCache {
+    private static final int CAPACITY = 4096;
+    private static final int MAX_RENDER_CONTEXTS = 4;
+
+    private final Font font;
+    private final Map<FontRenderContext, Map<Integer, Label>> labelsByContext =
+            new LinkedHashMap<FontRenderContext, Map<Integer, Label>>(8, 0.75f, true) {
+                private static final long serialVersionUID = -2319364215232526829L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<FontRenderContext, Map<Integer, Label>> eldest) {
+                    return size() > MAX_RENDER_CONTEXTS;
+                }
+            };
+
+    /**
+     * Constructs an empty cache for labels in the given font.
+     *
+     * @param font the font of the labels
+     */
+    LabelCache(Font font) {
+        this.font = font;
+    }
+
+    /**
+     * Returns the label for the given ID laid out for the given canvas.
+     *
+     * @param g the canvas the label will be drawn to
+     * @param id the ID to label
+     *
+     * @return the label
+     */
+    Label get(Graphics2D g, int id) {
+        final FontRenderContext context = g.getFontRenderContext();
+        Map<Integer, Label> labels = labelsByContext.get(context);
+        if (labels == null) {
+            labels = newLabelMap();
+            labelsByContext.put(context, labels);
+        }
+
+        Label label = labels.get(id);
+        if (label == null) {
+            final GlyphVector glyphs = font.createGlyphVector(context, Integer.toString(id));
+            final Rectangle bounds = glyphs.getPixelBounds(null, 0, 0);
+            label = new Label(glyphs, bounds.width, bounds.height);
+            labels.put(id, label);
+        }
+        return label;
+    }
+
+    private static Map<Integer, Label> newLabelMap() {
+        return new LinkedHashMap<Integer, Label>(16, 0.75f, true) {
+            private static final long serialVersionUID = 3658151020435183766L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Label> eldest) {
+                return size() > CAPACITY;
+            }
+        };
+    }
+
+    /**
+     * A laid out label together with the size of its pixels.
+     */
+    static final class Label {
+        private final GlyphVector glyphs;
+        private final int width;
+        private final int height;
+
+        private Label(GlyphVector glyphs, int width, int height) {
+            this.glyphs = glyphs;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Draws the label centered in the given box.
+         *
+         * @param g the canvas
+         * @param x the left of the box
+         * @param y the top of the box
+         * @param boxWidth the width of the box
+         * @param boxHeight the height of the box
+         */
+        void drawCentered(Graphics2D g, int x, int y, int boxWidth, int boxHeight) {
+            g.drawGlyphVector(glyphs, x + (boxWidth / 2 - width / 2) - 1,
+                    y + (boxHeight / 2 + height / 2) + 1);
+        }
+    }
+}
@@ -1,27 +1,54 @@
 package graph;
 
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import visualization.Graphinator;
 
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
- * Used to detect and report the properties of a graph.
+ * Used to detect and report the properties of a graph. Properties are calculated in the background
+ * from snapshots of the graph and published as immutable {@link GraphProperties}, so reading them
+ * never waits for a calculation. Until the calculation for the latest change is published the
+ * properties are reported as stale.
  */
 public class PropertyManager {
     private static final Logger LOGGER = LoggerFactory.getLogger(PropertyManager.class);
 
+    /**
+     * The number of cycles counted in the {@link CycleMode#BOUNDED} mode unless set otherwise.
+     */
+    public static final int DEFAULT_CYCLE_LIMIT = 100000;
+    /**
+     * The time in milliseconds spent counting cycles in the {@link CycleMode#BOUNDED} mode.
+     */
+    public static final long CYCLE_TIME_BUDGET_MILLIS = 500;
+    // Changes made within this many milliseconds of each other share one calculation
+    private static final int CALCULATION_DELAY_MILLIS = 100;
+    // The calculation thread stops after being idle this long so replaced graphs leave none behind
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 5;
+
     private final Graph graph;
+    private final ScheduledThreadPoolExecutor executorService = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder().setNameFormat("properties-%d").setDaemon(true).build());
+
+    private volatile GraphProperties properties = GraphProperties.EMPTY;
+    private volatile boolean stale;
+    private volatile boolean cyclesStale;
+    // Incremented for every calculation so that calculations can tell when they are out of date
+    private volatile long generation;
 
-    private int maxDegree = 0;
-    private boolean bipartite = false;
-    private boolean tree = false;
-    private boolean connected = true;
-    private boolean regular;
-    private int girth = 0;
-    private final Set<Cycle> cycles = new HashSet<>();
+    private volatile CycleMode cycleMode = CycleMode.BOUNDED;
+    private volatile int cycleLimit = DEFAULT_CYCLE_LIMIT;
+    // The latest snapshot waiting to be calculated, or null if no calculation is scheduled
+    private CompactGraph pendingSnapshot;
 
     /**
      * Constructs a property manager for the given graph.
@@ -30,25 +57,37 @@ public class PropertyManager {
      */
     public PropertyManager(Graph graph) {
         this.graph = graph;
+        executorService.setKeepAliveTime(THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executorService.allowCoreThreadTimeOut(true);
     }
 
-    void graphIsConnected() {
-        connected = true;
+    /**
+     * Returns the most recently calculated properties of the graph.
+     *
+     * @return the properties
+     */
+    public GraphProperties getProperties() {
+        return properties;
     }
 
-    void graphIsDisconnected() {
-        connected = false;
+    /**
+     * Returns whether the graph has changed since its properties were calculated.
+     *
+     * @return whether the properties are stale
+     */
+    public boolean isStale() {
+        return stale;
     }
 
-    private void calculateMaxDegree() {
-        int max = 0;
-        for (Vertex vertex : graph.getVertices()) {
-            if (vertex.getDegree() > max) {
-                max = vertex.getDegree();
-            }
-        }
-
-        maxDegree = max;
+    /**
+     * Returns whether the graph has changed since its cycles were counted. The cycles are counted
+     * after every other property so they can remain stale for a while after the rest is up to
+     * date.
+     *
+     * @return whether the number of cycles is stale
+     */
+    public boolean areCyclesStale() {
+        return cyclesStale;
     }
 
     /**
@@ -57,11 +96,7 @@ public class PropertyManager {
      * @return the maximum degree
      */
     public int getMaxDegree() {
-        return maxDegree;
-    }
-
-    private void calculateBipartite() {
-        bipartite = graph.numberOfColors() <= 2;
+        return properties.getMaxDegree();
     }
 
     /**
@@ -70,7 +105,7 @@ public class PropertyManager {
      * @return whether the graph is bipartite
      */
     public boolean isBipartite() {
-        return bipartite;
+        return properties.isBipartite();
     }
 
     /**
@@ -79,12 +114,7 @@ public class PropertyManager {
      * @return whether the graph is connected
      */
     public boolean isConnected() {
-        return connected;
-    }
-
-    private void calculateTree() {
-        // TODO fix definition for directed graphs
-        tree = isConnected() && graph.numberOfConnections() / 2 == graph.numberOfVertices() - 1;
+        return properties.isConnected();
     }
 
     /**
@@ -93,21 +123,7 @@ public class PropertyManager {
      * @return whether the graph is a tree
      */
     public boolean isTree() {
-        return tree;
-    }
-
-    private void calculateRegularity() {
-        if (graph.numberOfVertices() > 0) {
-            final Iterator<Vertex> iterator = graph.getVertices().iterator();
-            final int degree = iterator.next().getDegree();
-            while (iterator.hasNext()) {
-                if (iterator.next().getDegree() != degree) {
-                    regular = false;
-                    return;
-                }
-            }
-        }
-        regular = true;
+        return properties.isTree();
     }
 
     /**
@@ -116,7 +132,7 @@ public class PropertyManager {
      * @return whether the graph is regular
      */
     public boolean isRegular() {
-        return regular;
+        return properties.isRegular();
     }
 
     /**
@@ -125,63 +141,321 @@ public class PropertyManager {
      * @return whether the graph is complete
      */
     public boolean isComplete() {
-        return maxDegree == graph.numberOfVertices() - 1 && isRegular();
+        return properties.isComplete();
     }
 
     /**
-     * Returns the number of cycles in the graph.
+     * Returns the number of cycles in the graph. If the count is not exact it is a lower bound.
      *
      * @return the number of cycles in the graph
      */
     public int numCycles() {
-        return cycles.size();
+        return properties.numCycles();
     }
 
     /**
-     * Returns the girth of the graph.
+     * Returns whether every cycle was counted. If not, the graph has at least {@link
+     * #numCycles()} cycles.
+     *
+     * @return whether the number of cycles is exact
+     */
+    public boolean isCycleCountExact() {
+        return properties.isCycleCountExact();
+    }
+
+    /**
+     * Returns the cycles of the graph. The cycles are only kept in the {@link
+     * CycleMode#ENUMERATE} mode.
+     *
+     * @return the cycles
+     */
+    public List<Cycle> getCycles() {
+        return properties.getCycles();
+    }
+
+    /**
+     * Returns the girth of the graph, which is the length of its shortest cycle or zero if the
+     * graph has no cycles.
      *
      * @return the girth of the graph
      */
     public int getGirth() {
-        return girth;
+        return properties.getGirth();
+    }
+
+    /**
+     * Returns the way the cycles of the graph are counted.
+     *
+     * @return the cycle mode
+     */
+    public CycleMode getCycleMode() {
+        return cycleMode;
+    }
+
+    /**
+     * Sets the way the cycles of the graph are counted and counts them again.
+     *
+     * @param cycleMode the cycle mode
+     */
+    public void setCycleMode(CycleMode cycleMode) {
+        this.cycleMode = cycleMode;
+        calculateProperties(graph::snapshot);
     }
 
     /**
-     * Calculates all cycles in the current graph.
+     * Sets the number of cycles after which counting stops in the {@link CycleMode#BOUNDED} mode
+     * and counts them again.
+     *
+     * @param cycleLimit the maximum number of cycles to count
      */
-    public void calculateCycles() {
-        cycles.clear();
-        girth = 0;
+    public void setCycleLimit(int cycleLimit) {
+        this.cycleLimit = cycleLimit;
+        calculateProperties(graph::snapshot);
+    }
 
-        for (final Vertex startingVertex : graph.getVertices()) {
-            calculateCycle(startingVertex, new CycleBuilder());
+    /**
+     * Marks the properties as stale and calculates them again in the background, replacing any
+     * calculation still running for an earlier snapshot. The snapshot is taken right away on the
+     * thread that changed the graph, but the calculation only starts shortly after so that a burst
+     * of changes, such as adding connections one at a time, leads to a single calculation of the
+     * latest snapshot.
+     *
+     * @param snapshot supplies the snapshot of the graph at the time of the change
+     */
+    void calculateProperties(Supplier<CompactGraph> snapshot) {
+        final CompactGraph graphSnapshot = snapshot.get();
+        synchronized (this) {
+            ++generation;
+            stale = true;
+            cyclesStale = true;
+
+            final boolean scheduled = pendingSnapshot != null;
+            pendingSnapshot = graphSnapshot;
+            if (scheduled) {
+                return;
+            }
         }
-        LOGGER.info("Cycles: " + cycles.toString());
+
+        executorService.schedule(this::calculatePending, CALCULATION_DELAY_MILLIS,
+                TimeUnit.MILLISECONDS);
     }
 
-    private void calculateCycle(Vertex currentVertex, CycleBuilder cycleBuilder) {
-        if (cycleBuilder.addVertex(currentVertex)) {
-            if (cycleBuilder.isCycle()) {
-                final Cycle cycle = cycleBuilder.build();
-                if (cycles.add(cycle)) {
-                    if (girth == 0 || cycle.length() < girth) {
-                        girth = cycle.length();
+    private void calculatePending() {
+        final CompactGraph snapshot;
+        final long jobGeneration;
+        synchronized (this) {
+            snapshot = pendingSnapshot;
+            pendingSnapshot = null;
+            jobGeneration = generation;
+        }
+
+        final CycleMode mode = cycleMode;
+        final int limit = cycleLimit;
+        final BooleanSupplier superseded = () -> generation != jobGeneration;
+
+        // The cheap properties are published first so that only the cycles show as stale
+        final ComponentGraph undirected = undirected(snapshot);
+        final GraphProperties calculated = calculate(snapshot, undirected);
+        if (publish(calculated, jobGeneration, false)) {
+            publish(calculateCycles(undirected, calculated, mode, limit, superseded),
+                    jobGeneration, true);
+        }
+    }
+
+    private boolean publish(GraphProperties calculated, long jobGeneration, boolean complete) {
+        synchronized (this) {
+            if (generation != jobGeneration) {
+                return false;
+            }
+            properties = calculated;
+            stale = false;
+            cyclesStale = !complete;
+        }
+        Graphinator.redraw();
+        return true;
+    }
+
+    /**
+     * Calculates every property of the given snapshot of the graph except for its cycles.
+     *
+     * @param snapshot the snapshot of the graph
+     * @param undirected the snapshot with its connections treated as undirected
+     *
+     * @return the properties without the cycles
+     */
+    static GraphProperties calculate(CompactGraph snapshot, ComponentGraph undirected) {
+        final boolean connected = calculateConnected(snapshot);
+        return new GraphProperties(snapshot.numberOfVertices(), calculateMaxDegree(snapshot),
+                calculateBipartite(undirected), connected, calculateTree(snapshot, connected),
+                calculateRegularity(snapshot), calculateGirth(undirected));
+    }
+
+    private static int calculateMaxDegree(CompactGraph snapshot) {
+        int max = 0;
+        for (int vertex = 0; vertex < snapshot.numberOfVertices(); vertex++) {
+            if (snapshot.degree(vertex) > max) {
+                max = snapshot.degree(vertex);
+            }
+        }
+
+        return max;
+    }
+
+    private static boolean calculateBipartite(ComponentGraph graph) {
+        // The coloring may only be an upper bound so check for a two coloring directly. Like the
+        // coloring the check treats connections as undirected.
+        final int[] sides = new int[graph.size()];
+        final int[] queue = new int[graph.size()];
+        for (int start = 0; start < graph.size(); start++) {
+            if (sides[start] != 0) {
+                continue;
+            }
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            sides[start] = 1;
+            while (head < tail) {
+                final int vertex = queue[head++];
+                for (int i = graph.neighborsStart(vertex); i < graph.neighborsEnd(vertex); i++) {
+                    final int neighbor = graph.neighbor(i);
+                    if (sides[neighbor] == 0) {
+                        sides[neighbor] = -sides[vertex];
+                        queue[tail++] = neighbor;
+                    } else if (sides[neighbor] == sides[vertex]) {
+                        return false;
                     }
                 }
-            } else {
-                for (final Vertex neighbor : currentVertex.getNeighbors()) {
-                    calculateCycle(neighbor, cycleBuilder);
+            }
+        }
+        return true;
+    }
+
+    private static boolean calculateConnected(CompactGraph snapshot) {
+        return ConnectedComponent.findAll(snapshot).size() <= 1;
+    }
+
+    private static boolean calculateTree(CompactGraph snapshot, boolean connected) {
+        // TODO fix definition for directed graphs
+        return connected &&
+                snapshot.numberOfConnections() / 2 == snapshot.numberOfVertices() - 1;
+    }
+
+    private static boolean calculateRegularity(CompactGraph snapshot) {
+        for (int vertex = 1; vertex < snapshot.numberOfVertices(); vertex++) {
+            if (snapshot.degree(vertex) != snapshot.degree(0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the cycles in the given snapshot of the graph according to the given cycle mode.
+     * Connections are treated as undirected and every cycle is found exactly once.
+     *
+     * @param graph the snapshot of the graph with its connections treated as undirected
+     * @param calculated the other properties of the snapshot
+     * @param mode the cycle mode
+     * @param limit the maximum number of cycles to count in the bounded mode
+     * @param cancelled whether the count is no longer needed
+     *
+     * @return the properties including the cycles
+     */
+    static GraphProperties calculateCycles(ComponentGraph graph, GraphProperties calculated,
+            CycleMode mode, int limit, BooleanSupplier cancelled) {
+        final int maxCycles = mode == CycleMode.BOUNDED ? limit : Integer.MAX_VALUE;
+        final long deadline = System.nanoTime() + CYCLE_TIME_BUDGET_MILLIS * 1000000;
+
+        final List<Cycle> cycles = new ArrayList<>();
+        final int[] count = new int[1];
+        final boolean complete = CycleEnumerator.enumerate(graph, (cycle, length) -> {
+            // The count is only incomplete if there are more cycles than the limit
+            if (count[0] == maxCycles) {
+                return false;
+            }
+            if (mode == CycleMode.ENUMERATE) {
+                final List<Vertex> vertices = new ArrayList<>(length + 1);
+                for (int i = 0; i < length; i++) {
+                    vertices.add(graph.getVertex(cycle[i]));
+                }
+                vertices.add(graph.getVertex(cycle[0]));
+                cycles.add(new Cycle(vertices));
+            }
+            count[0]++;
+            return true;
+        }, () -> cancelled.getAsBoolean() ||
+                mode == CycleMode.BOUNDED && System.nanoTime() - deadline > 0);
+
+        LOGGER.debug("Found " + count[0] + (complete ? "" : " or more") + " cycles");
+        return calculated.withCycles(count[0], complete, cycles);
+    }
+
+    /**
+     * Calculates the length of the shortest cycle with a breadth-first search from every vertex,
+     * which finds the shortest cycle through the start vertex. Each search stops once every cycle
+     * it could still find is at least as long as the shortest one so far.
+     *
+     * @param graph the snapshot of the graph with its connections treated as undirected
+     *
+     * @return the girth
+     */
+    private static int calculateGirth(ComponentGraph graph) {
+        final int size = graph.size();
+        final int[] distances = new int[size];
+        final int[] parents = new int[size];
+        final int[] queue = new int[size];
+        Arrays.fill(distances, -1);
+
+        // No cycle is shorter than three so the search can stop once one is found
+        int shortest = Integer.MAX_VALUE;
+        for (int start = 0; start < size && shortest > 3; start++) {
+            if (graph.degree(start) < 2) {
+                continue;
+            }
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            distances[start] = 0;
+            parents[start] = -1;
+            while (head < tail) {
+                final int vertex = queue[head++];
+                if (2 * distances[vertex] + 1 >= shortest) {
+                    break;
+                }
+                for (int i = graph.neighborsStart(vertex); i < graph.neighborsEnd(vertex); i++) {
+                    final int neighbor = graph.neighbor(i);
+                    if (distances[neighbor] < 0) {
+                        distances[neighbor] = distances[vertex] + 1;
+                        parents[neighbor] = vertex;
+                        queue[tail++] = neighbor;
+                    } else if (neighbor != parents[vertex]) {
+                        shortest = Math.min(shortest,
+                                distances[vertex] + distances[neighbor] + 1);
+                    }
                 }
             }
-            cycleBuilder.removeVertex();
+
+            for (int i = 0; i < tail; i++) {
+                distances[queue[i]] = -1;
+            }
         }
+        return shortest == Integer.MAX_VALUE ? 0 : shortest;
     }
 
-    void calculateProperties() {
-        calculateMaxDegree();
-        calculateTree();
-        calculateBipartite();
-        calculateRegularity();
-        calculateCycles();
+    /**
+     * Returns the given snapshot of the graph with its connections treated as undirected.
+     *
+     * @param snapshot the snapshot of the graph
+     *
+     * @return the undirected graph
+     */
+    static ComponentGraph undirected(CompactGraph snapshot) {
+        final int[] allVertices = new int[snapshot.numberOfVertices()];
+        for (int vertex = 0; vertex < allVertices.length; vertex++) {
+            allVertices[vertex] = vertex;
+        }
+        return new ComponentGraph(snapshot, allVertices);
     }
 }
@@ -0,0 +1,100 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Colors a component with the recursive largest first heuristic. Each color class is started with
+ * the uncolored vertex that has the most uncolored neighbors and then grown with the vertex that
+ * has the most neighbors already excluded from the class, preferring vertices with fewer uncolored
+ * neighbors on ties.
+ */
+final class RlfColoring {
+
+    private RlfColoring() {
+    }
+
+    /**
+     * Colors the given component.
+     *
+     * @param graph the component
+     *
+     * @return the color of every vertex of the component indexed by local index
+     */
+    static int[] color(ComponentGraph graph) {
+        final int size = graph.size();
+        final int[] colors = new int[size];
+        Arrays.fill(colors, -1);
+        final int[] uncoloredDegrees = new int[size];
+        for (int v = 0; v < size; v++) {
+            uncoloredDegrees[v] = graph.degree(v);
+        }
+        final int[] excludedNeighbors = new int[size];
+        final boolean[] excluded = new boolean[size];
+
+        int remaining = size;
+        for (int color = 0; remaining > 0; color++) {
+            int first = -1;
+            for (int v = 0; v < size; v++) {
+                if (colors[v] < 0) {
+                    excluded[v] = false;
+                    excludedNeighbors[v] = 0;
+                    if (first < 0 || uncoloredDegrees[v] > uncoloredDegrees[first]) {
+                        first = v;
+                    }
+                }
+            }
+
+            // Entries become stale when the number of excluded neighbors of their vertex grows,
+            // in which case a fresher entry will have been queued
+            final PriorityQueue<long[]> candidates = new PriorityQueue<>(
+                    (a, b) -> Long.compare(b[0], a[0]));
+            for (int v = 0; v < size; v++) {
+                if (colors[v] < 0 && v != first) {
+                    candidates.add(new long[]{key(v, excludedNeighbors, uncoloredDegrees), v});
+                }
+            }
+
+            int next = first;
+            while (next >= 0) {
+                colors[next] = color;
+                remaining--;
+
+                // Neighbors of the new member can no longer join the class
+                for (int i = graph.neighborsStart(next); i < graph.neighborsEnd(next); i++) {
+                    final int w = graph.neighbor(i);
+                    if (colors[w] >= 0) {
+                        continue;
+                    }
+                    uncoloredDegrees[w]--;
+                    if (!excluded[w]) {
+                        excluded[w] = true;
+                        for (int j = graph.neighborsStart(w); j < graph.neighborsEnd(w); j++) {
+                            final int x = graph.neighbor(j);
+                            if (colors[x] < 0 && !excluded[x]) {
+                                excludedNeighbors[x]++;
+                                candidates.add(new long[]{
+                                        key(x, excludedNeighbors, uncoloredDegrees), x});
+                            }
+                        }
+                    }
+                }
+
+                next = -1;
+                while (next < 0 && !candidates.isEmpty()) {
+                    final long[] entry = candidates.poll();
+                    final int v = (int) entry[1];
+                    if (colors[v] < 0 && !excluded[v] &&
+                            entry[0] == key(v, excludedNeighbors, uncoloredDegrees)) {
+                        next = v;
+                    }
+                }
+            }
+        }
+        return colors;
+    }
+
+    private static long key(int v, int[] excludedNeighbors, int[] uncoloredDegrees) {
+        return ((long) excludedNeighbors[v] << 32) - uncoloredDegrees[v];
+    }
+}
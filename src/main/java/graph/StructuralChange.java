@@ -2,7 +2,6 @@ package graph;
 
 import com.google.common.collect.ImmutableSet;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -12,23 +11,19 @@ import java.util.Set;
  */
 public class StructuralChange {
     private final Set<Vertex> verticesChanged = new HashSet<>();
+    private final Set<Connection> connectionsAdded = new HashSet<>();
 
     /**
-     * Creates a new structural change indicating the given vertices have been changed.
+     * Creates a new structural change indicating the given vertices have been changed, where the
+     * change consisted of nothing but adding the given connections if any are given.
      *
      * @param vertices the given vertices
+     * @param connectionsAdded the connections that were added or an empty set if other changes
+     * were made
      */
-    public StructuralChange(Vertex... vertices) {
-        verticesChanged.addAll(Arrays.asList(vertices));
-    }
-
-    /**
-     * Creates a new structural change indicating the given vertices have been changed.
-     *
-     * @param vertices the given vertices
-     */
-    public StructuralChange(Set<Vertex> vertices) {
+    public StructuralChange(Set<Vertex> vertices, Set<Connection> connectionsAdded) {
         verticesChanged.addAll(vertices);
+        this.connectionsAdded.addAll(connectionsAdded);
     }
 
     /**
@@ -39,4 +34,24 @@ public class StructuralChange {
     public Set<Vertex> getVerticesChanged() {
         return ImmutableSet.copyOf(verticesChanged);
     }
+
+    /**
+     * Returns the connections that were added in the current structural change. These are only
+     * known when the change consists of nothing but added connections.
+     *
+     * @return the connections that were added
+     */
+    public Set<Connection> getConnectionsAdded() {
+        return ImmutableSet.copyOf(connectionsAdded);
+    }
+
+    /**
+     * Returns whether the current structural change consists of nothing but added connections.
+     * Adding connections can never reduce the number of colors the graph needs.
+     *
+     * @return whether only connections were added
+     */
+    public boolean isAdditive() {
+        return !connectionsAdded.isEmpty();
+    }
 }
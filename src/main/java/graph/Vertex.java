@@ -7,10 +7,6 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Point;
-import java.awt.Rectangle;
-import java.awt.font.FontRenderContext;
-import java.awt.font.GlyphVector;
 import java.util.Set;
 
 /**
@@ -24,8 +20,13 @@ public class Vertex implements Comparable {
     private int x, y;
     private boolean selected;
 
-    private static final int radius = 10;
+    static final int radius = 10;
+    /**
+     * The radius of the ghost vertex drawn where a vertex would be created.
+     */
+    public static final int GHOST_RADIUS = radius;
     private static final int diameter = radius * 2;
+    private static final LabelCache labelCache = new LabelCache(new Font("Arial", Font.PLAIN, 10));
 
     /**
      * Creates a new vertex with the given ID at the given position in the given graph.
@@ -63,7 +64,7 @@ public class Vertex implements Comparable {
      * Uncolors the current vertex such that it has no color assigned to it.
      */
     public void uncolor() {
-        color = -1;
+        setColor(-1);
     }
 
     /**
@@ -104,8 +105,11 @@ public class Vertex implements Comparable {
      * @param position the new position of the vertex
      */
     public void setPosition(CanvasPosition position) {
+        final int previousX = x;
+        final int previousY = y;
         x = position.getX();
         y = position.getY();
+        graph.getVertexManager().vertexMoved(this, previousX, previousY);
     }
 
     /**
@@ -147,7 +151,10 @@ public class Vertex implements Comparable {
      * @param color the color to set
      */
     public void setColor(int color) {
-        this.color = color;
+        if (this.color != color) {
+            this.color = color;
+            graph.sceneChanged();
+        }
     }
 
     /**
@@ -186,6 +193,18 @@ public class Vertex implements Comparable {
      * @param cY the canvas shift in the y direction
      */
     public void draw(Graphics g, int cX, int cY) {
+        draw(g, cX, cY, selected);
+    }
+
+    /**
+     * Draws the current vertex to the given canvas taking into account the given canvas shift.
+     *
+     * @param g the canvas
+     * @param cX the canvas shift in the x direction
+     * @param cY the canvas shift in the y direction
+     * @param highlighted whether to draw the vertex as selected
+     */
+    void draw(Graphics g, int cX, int cY, boolean highlighted) {
         // Determine which color we should draw the vertex with
         Color c = graph.getColorManager().getColor(color);
         if (c == null) {
@@ -195,18 +214,30 @@ public class Vertex implements Comparable {
         g.fillOval(x - radius + cX, y - radius + cY, diameter, diameter);
 
         // Highlight the edge of the vertex if it is selected
-        if (selected) {
+        if (highlighted) {
             g.setColor(Color.red);
         } else {
             g.setColor(Color.white);
         }
         g.drawOval(x - radius + cX, y - radius + cY, diameter, diameter);
 
-        // Draw the ID
+        // Draw the ID, whose layout is cached since it only depends on the ID
         g.setColor(getContrastColor(graph.getColorManager().getColor(color)));
-        g.setFont(new Font("Arial", Font.PLAIN, 10));
-        drawStringCentered(g, Integer.toString(id), x - radius + cX, y - radius + cY, diameter,
-                diameter);
+        labelCache.get((Graphics2D) g, id).drawCentered((Graphics2D) g, x - radius + cX,
+                y - radius + cY, diameter, diameter);
+    }
+
+    /**
+     * Draws the current vertex to the given canvas as a small dot in its color, which is used
+     * when too many vertices are visible to draw each of them in full.
+     *
+     * @param g the canvas
+     * @param cX the canvas shift in the x direction
+     * @param cY the canvas shift in the y direction
+     */
+    public void drawPoint(Graphics g, int cX, int cY) {
+        g.setColor(graph.getColorManager().getColor(color));
+        g.fillRect(x - 1 + cX, y - 1 + cY, 2, 2);
     }
 
     private static Color getContrastColor(Color color) {
@@ -214,21 +245,6 @@ public class Vertex implements Comparable {
         return y >= 128 ? Color.black : Color.white;
     }
 
-    private static void drawStringCentered(Graphics g, String s, int x, int y, int width,
-            int height) {
-        final Rectangle stringBounds = getStringBounds((Graphics2D) g, s, x, y);
-        final int stringWidth = (int) stringBounds.getWidth();
-        final int stringHeight = (int) stringBounds.getHeight();
-        g.drawString(s, x + (width / 2 - stringWidth / 2) - 1,
-                y + (height / 2 + stringHeight / 2) + 1);
-    }
-
-    private static Rectangle getStringBounds(Graphics2D g2, String str, float x, float y) {
-        FontRenderContext frc = g2.getFontRenderContext();
-        GlyphVector gv = g2.getFont().createGlyphVector(frc, str);
-        return gv.getPixelBounds(null, x, y);
-    }
-
     /**
      * Draws a ghost vertex to the given canvas at the given position
      *
@@ -249,7 +265,7 @@ public class Vertex implements Comparable {
      * @return the degree of the vertex
      */
     public int getDegree() {
-        return graph.getConnectionManager().getNeighbors(this).size();
+        return graph.getConnectionManager().getDegree(this);
     }
 
     /**
@@ -294,9 +310,21 @@ public class Vertex implements Comparable {
      * @return the distance between this vertex and the given position
      */
     public double distance(CanvasPosition position) {
-        final Point vertex = new Point(x, y);
-        final Point mouse = new Point(position.getX(), position.getY());
-        return vertex.distance(mouse);
+        return Math.sqrt(distanceSquared(position));
+    }
+
+    /**
+     * Returns the square of the distance between the current vertex and the point represented by
+     * the given position, which is cheaper to compare than the distance itself.
+     *
+     * @param position the given position
+     *
+     * @return the squared distance between this vertex and the given position
+     */
+    long distanceSquared(CanvasPosition position) {
+        final long dx = position.getX() - (long) x;
+        final long dy = position.getY() - (long) y;
+        return dx * dx + dy * dy;
     }
 
     /**
@@ -308,7 +336,7 @@ public class Vertex implements Comparable {
      * @return whether the position is within the vertex
      */
     public boolean pointInVertex(CanvasPosition position) {
-        return distance(position) < radius;
+        return distanceSquared(position) < radius * radius;
     }
 
     @Override
@@ -0,0 +1,207 @@
+package graph;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the vertices of a graph by their position on the canvas so that the vertices near a
+ * point can be found without looking at every vertex. The canvas is divided into square cells and
+ * every vertex is stored in the cell containing its center, so a query only has to look at the
+ * cells within its search distance of the point.
+ */
+final class VertexGrid {
+    // Larger than the diameter of a vertex so that hit tests look at no more than four cells
+    private static final int CELL_SIZE = 32;
+
+    private final Map<Long, List<Vertex>> cells = new HashMap<>();
+
+    /**
+     * Adds the given vertex at its current position.
+     *
+     * @param vertex the vertex
+     */
+    void add(Vertex vertex) {
+        List<Vertex> cell = cells.get(key(vertex.getX(), vertex.getY()));
+        if (cell == null) {
+            cell = new ArrayList<>(2);
+            cells.put(key(vertex.getX(), vertex.getY()), cell);
+        }
+        cell.add(vertex);
+    }
+
+    /**
+     * Removes the given vertex, which must still be at the position it was added at.
+     *
+     * @param vertex the vertex
+     */
+    void remove(Vertex vertex) {
+        remove(vertex, vertex.getX(), vertex.getY());
+    }
+
+    /**
+     * Moves the given vertex from the given previous position to its current position. Vertices
+     * that are not in the grid are ignored.
+     *
+     * @param vertex the vertex
+     * @param previousX the previous x position of the vertex
+     * @param previousY the previous y position of the vertex
+     */
+    void move(Vertex vertex, int previousX, int previousY) {
+        if (key(previousX, previousY) == key(vertex.getX(), vertex.getY())) {
+            return;
+        }
+        if (remove(vertex, previousX, previousY)) {
+            add(vertex);
+        }
+    }
+
+    private boolean remove(Vertex vertex, int x, int y) {
+        final long key = key(x, y);
+        final List<Vertex> cell = cells.get(key);
+        if (cell == null) {
+            return false;
+        }
+        for (int i = 0; i < cell.size(); i++) {
+            // Vertices are compared by identity since a replaced vertex shares its ID
+            if (cell.get(i) == vertex) {
+                cell.remove(i);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the vertices containing the given position.
+     *
+     * @param position the position
+     *
+     * @return the vertices containing the position
+     */
+    List<Vertex> verticesAt(CanvasPosition position) {
+        // Points inside a vertex are less than a radius away from its center
+        return verticesWithin(position, Vertex.radius);
+    }
+
+    /**
+     * Returns the vertices whose centers are closer to the given position than the given
+     * distance.
+     *
+     * @param position the position
+     * @param distance the distance
+     *
+     * @return the vertices near the position
+     */
+    List<Vertex> verticesWithin(CanvasPosition position, double distance) {
+        List<Vertex> found = Collections.emptyList();
+        final double maximumSquared = distance * distance;
+        final int radius = (int) Math.ceil(distance);
+        for (int cellX = cell(position.getX() - radius); cellX <= cell(position.getX() + radius);
+                cellX++) {
+            for (int cellY = cell(position.getY() - radius);
+                    cellY <= cell(position.getY() + radius); cellY++) {
+                final List<Vertex> cell = cells.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (final Vertex vertex : cell) {
+                    if (vertex.distanceSquared(position) < maximumSquared) {
+                        if (found.isEmpty()) {
+                            found = new ArrayList<>(1);
+                        }
+                        found.add(vertex);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the vertex whose center is closest to the given position among the vertices closer
+     * than the given distance, or {@code null} if there is none.
+     *
+     * @param position the position
+     * @param maximumDistance the distance the center of the vertex must be closer than
+     * @param excluded a vertex to leave out of the search, or {@code null}
+     *
+     * @return the closest vertex
+     */
+    Vertex nearestVertex(CanvasPosition position, double maximumDistance, Vertex excluded) {
+        // Squared distances are compared to avoid taking square roots
+        Vertex nearest = null;
+        double nearestDistance = maximumDistance * maximumDistance;
+        final int radius = (int) Math.ceil(maximumDistance);
+        for (int cellX = cell(position.getX() - radius); cellX <= cell(position.getX() + radius);
+                cellX++) {
+            for (int cellY = cell(position.getY() - radius);
+                    cellY <= cell(position.getY() + radius); cellY++) {
+                final List<Vertex> cell = cells.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (final Vertex vertex : cell) {
+                    if (vertex == excluded) {
+                        continue;
+                    }
+                    final long distance = vertex.distanceSquared(position);
+                    if (distance < nearestDistance) {
+                        nearest = vertex;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the vertices that may be visible in the given area of the canvas, which are those
+     * whose centers are within a radius of the area.
+     *
+     * @param area the area of the canvas
+     *
+     * @return the vertices in the area
+     */
+    List<Vertex> verticesIn(Rectangle area) {
+        final List<Vertex> found = new ArrayList<>();
+        final int minX = area.x - Vertex.radius;
+        final int minY = area.y - Vertex.radius;
+        final int maxX = area.x + area.width + Vertex.radius;
+        final int maxY = area.y + area.height + Vertex.radius;
+        for (int cellX = cell(minX); cellX <= cell(maxX); cellX++) {
+            for (int cellY = cell(minY); cellY <= cell(maxY); cellY++) {
+                final List<Vertex> cell = cells.get(cellKey(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (final Vertex vertex : cell) {
+                    if (vertex.getX() >= minX && vertex.getX() <= maxX && vertex.getY() >= minY
+                            && vertex.getY() <= maxY) {
+                        found.add(vertex);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static int cell(int coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int x, int y) {
+        return cellKey(cell(x), cell(y));
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -1,7 +1,10 @@
 package graph;
 
+import com.google.common.collect.Maps;
+
+import java.awt.Rectangle;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -11,8 +14,11 @@ class VertexManager {
 
     private final Graph graph;
 
-    private final Map<Integer, Vertex> vertices = new HashMap<>();
+    private final Map<Integer, Vertex> vertices;
+    private final VertexGrid grid = new VertexGrid();
     private int nextVertexIDToAssign = 0;
+    // Counts changes to which vertices exist and where they are, for caches derived from them
+    private long version;
 
     /**
      * Constructs a new vertex manager for the given graph.
@@ -20,7 +26,19 @@ class VertexManager {
      * @param graph the given graph
      */
     VertexManager(Graph graph) {
+        this(graph, 0);
+    }
+
+    /**
+     * Constructs a new vertex manager for the given graph with room for the given number of
+     * vertices.
+     *
+     * @param graph the given graph
+     * @param expectedVertices the expected number of vertices
+     */
+    VertexManager(Graph graph, int expectedVertices) {
         this.graph = graph;
+        vertices = Maps.newHashMapWithExpectedSize(expectedVertices);
     }
 
     /**
@@ -62,7 +80,13 @@ class VertexManager {
     Vertex createVertex(int id, CanvasPosition position) {
         final Vertex newVertex = new Vertex(id, position, graph);
         graph.structurallyChanged(newVertex);
-        return vertices.put(id, newVertex);
+        final Vertex replacedVertex = vertices.put(id, newVertex);
+        if (replacedVertex != null) {
+            grid.remove(replacedVertex);
+        }
+        grid.add(newVertex);
+        version++;
+        return replacedVertex;
     }
 
     /**
@@ -91,6 +115,71 @@ class VertexManager {
     void removeVertex(Vertex vertexToRemove) {
         graph.getConnectionManager().removeVertex(vertexToRemove);
         vertices.remove(vertexToRemove.getID());
+        grid.remove(vertexToRemove);
+        version++;
+    }
+
+    /**
+     * Notifies the manager that the given vertex has moved from the given position.
+     *
+     * @param vertex the vertex that moved
+     * @param previousX the previous x position of the vertex
+     * @param previousY the previous y position of the vertex
+     */
+    void vertexMoved(Vertex vertex, int previousX, int previousY) {
+        grid.move(vertex, previousX, previousY);
+        version++;
+        graph.sceneChanged();
+        graph.getConnectionManager().vertexMoved(vertex);
+    }
+
+    /**
+     * Returns the vertices containing the given position.
+     *
+     * @param position the position
+     *
+     * @return the vertices containing the position
+     */
+    List<Vertex> getVerticesAt(CanvasPosition position) {
+        return grid.verticesAt(position);
+    }
+
+    /**
+     * Returns the vertices whose centers are closer to the given position than the given
+     * distance.
+     *
+     * @param position the position
+     * @param distance the distance
+     *
+     * @return the vertices near the position
+     */
+    List<Vertex> getVerticesWithin(CanvasPosition position, double distance) {
+        return grid.verticesWithin(position, distance);
+    }
+
+    /**
+     * Returns the vertices that may be visible in the given area of the canvas.
+     *
+     * @param area the area of the canvas
+     *
+     * @return the vertices in the area
+     */
+    List<Vertex> getVerticesIn(Rectangle area) {
+        return grid.verticesIn(area);
+    }
+
+    /**
+     * Returns the vertex whose center is closest to the given position among the vertices closer
+     * than the given distance, or {@code null} if there is none.
+     *
+     * @param position the position
+     * @param maximumDistance the distance the center of the vertex must be closer than
+     * @param excluded a vertex to leave out of the search, or {@code null}
+     *
+     * @return the closest vertex
+     */
+    Vertex getNearestVertex(CanvasPosition position, double maximumDistance, Vertex excluded) {
+        return grid.nearestVertex(position, maximumDistance, excluded);
     }
 
     /**
@@ -103,6 +192,17 @@ class VertexManager {
         return vertices.values();
     }
 
+    /**
+     * Returns the structural version of the vertices, which increases whenever a vertex is added,
+     * removed or moved. Anything derived from the vertices and their positions stays valid for as
+     * long as the version does not change.
+     *
+     * @return the structural version
+     */
+    long getVersion() {
+        return version;
+    }
+
     /**
      * Returns the total number of vertices in the graph.
      *
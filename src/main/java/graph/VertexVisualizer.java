@@ -1,14 +1,19 @@
 package graph;
 
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Handles visualizing vertices of a graph.
  */
 class VertexVisualizer {
 
+    // Beyond this many vertices on-screen they are drawn as points since labels become unreadable
+    private static final int DETAIL_LIMIT = 2000;
+
     private final VertexManager vertexManager;
     private final VertexCacher vertexCacher = new VertexCacher();
 
@@ -16,29 +21,79 @@ class VertexVisualizer {
         this.vertexManager = vertexManager;
     }
 
-    void drawVertices(Graphics g, int canvasX, int canvasY) {
-        for (Vertex vertex : vertexCacher.getVertices()) {
-            vertex.draw(g, canvasX, canvasY);
+    /**
+     * Draws the vertices in the given area of the canvas without highlighting selected vertices.
+     *
+     * @param g the canvas
+     * @param canvasX the x canvas shift
+     * @param canvasY the y canvas shift
+     * @param visibleArea the visible area of the canvas or {@code null} to draw every vertex
+     */
+    void drawVertices(Graphics g, int canvasX, int canvasY, Rectangle visibleArea) {
+        // The cached draw list holds every vertex, so it is used whenever all of them are visible
+        final Collection<Vertex> vertices =
+                visibleArea == null || visibleArea.contains(vertexCacher.getBounds()) ?
+                        vertexCacher.getVertices() : vertexManager.getVerticesIn(visibleArea);
+        final boolean detailed = vertices.size() <= DETAIL_LIMIT;
+        for (Vertex vertex : vertices) {
+            if (detailed) {
+                vertex.draw(g, canvasX, canvasY, false);
+            } else {
+                vertex.drawPoint(g, canvasX, canvasY);
+            }
         }
     }
 
     /**
-     * Caches the vertices of a graph to save the vertex manager from processing vertices.
+     * Caches the vertices of a graph as a list to draw them in, ordered by ID so that overlapping
+     * vertices are always drawn the same way round, together with the area they cover. The list
+     * is only built again when the structural version of the vertex manager changes.
      */
     class VertexCacher {
-        private Collection<Vertex> cachedVertices = new HashSet<>();
+        private List<Vertex> cachedVertices;
+        private Rectangle cachedBounds;
+        private long cachedVersion = -1;
 
         /**
-         * Returns the vertices of the graph. If the vertices have been changed the cache will be
-         * updated to reflect those changes.
+         * Returns the vertices of the graph in the order to draw them, building the list again
+         * first if the vertices have changed.
          *
-         * @return the set of vertices
+         * @return the vertices to draw
          */
-        public Collection<Vertex> getVertices() {
-            if (cachedVertices.size() != vertexManager.numberOfVertices()) {
-                cachedVertices = vertexManager.getVertices();
-            }
+        public List<Vertex> getVertices() {
+            update();
             return cachedVertices;
         }
+
+        /**
+         * Returns the area of the canvas covered by the vertices of the graph.
+         *
+         * @return the bounds of the vertices
+         */
+        public Rectangle getBounds() {
+            update();
+            return cachedBounds;
+        }
+
+        private void update() {
+            if (cachedVersion != vertexManager.getVersion()) {
+                final List<Vertex> vertices = new ArrayList<>(vertexManager.getVertices());
+                vertices.sort(Comparator.comparingInt(Vertex::getID));
+                cachedVertices = vertices;
+
+                cachedBounds = new Rectangle();
+                for (Vertex vertex : vertices) {
+                    final Rectangle vertexBounds = new Rectangle(vertex.getX() - Vertex.radius,
+                            vertex.getY() - Vertex.radius, Vertex.radius * 2 + 1,
+                            Vertex.radius * 2 + 1);
+                    if (cachedBounds.isEmpty()) {
+                        cachedBounds = vertexBounds;
+                    } else {
+                        cachedBounds.add(vertexBounds);
+                    }
+                }
+                cachedVersion = vertexManager.getVersion();
+            }
+        }
     }
 }
@@ -0,0 +1,209 @@
+package util;
+
+import graph.CompactGraph;
+import graph.Graph;
+import graph.GraphBuilder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads and writes graphs in a compact binary format. The file is mapped into memory when read and
+ * its arrays are copied out in bulk, so even large graphs load without parsing any text.
+ * <p>
+ * All values are big-endian 32-bit integers. The file starts with a header holding the magic
+ * number, the format version, the number of vertices and the number of connections. It is followed
+ * by the IDs, x positions and y positions of the vertices, then by the adjacency of the graph in
+ * compressed sparse row form: the offset of the first connection of every vertex plus the total,
+ * and the index of the ending vertex of every connection.
+ */
+final class BinaryGraphFormat {
+    private static final int MAGIC = 0x47525048; // "GRPH"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 4;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryGraphFormat() {
+    }
+
+    /**
+     * Writes the given graph to the given output. The output is flushed but not closed.
+     *
+     * @param graph the graph
+     * @param stream the output
+     *
+     * @throws IOException if the output could not be written
+     */
+    static void write(Graph graph, OutputStream stream) throws IOException {
+        final CompactGraph snapshot = graph.snapshot();
+        final int numVertices = snapshot.numberOfVertices();
+        final DataOutputStream output =
+                new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(numVertices);
+        output.writeInt(snapshot.numberOfConnections());
+
+        for (int i = 0; i < numVertices; i++) {
+            output.writeInt(snapshot.getVertex(i).getID());
+        }
+        for (int i = 0; i < numVertices; i++) {
+            output.writeInt(snapshot.getVertex(i).getX());
+        }
+        for (int i = 0; i < numVertices; i++) {
+            output.writeInt(snapshot.getVertex(i).getY());
+        }
+        for (int i = 0; i < numVertices; i++) {
+            output.writeInt(snapshot.neighborsStart(i));
+        }
+        output.writeInt(snapshot.numberOfConnections());
+        for (int i = 0; i < snapshot.numberOfConnections(); i++) {
+            output.writeInt(snapshot.neighbor(i));
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads a graph from the given input. The input is not closed.
+     *
+     * @param stream the input
+     *
+     * @return the graph
+     *
+     * @throws IOException if the input could not be read
+     * @throws MalformedGraphException if the input is not a valid graph in the binary format
+     */
+    static Graph read(InputStream stream) throws IOException, MalformedGraphException {
+        final DataInputStream input =
+                new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE));
+        try {
+            if (input.readInt() != MAGIC) {
+                throw new MalformedGraphException("Input is not a binary graph");
+            }
+            final int version = input.readInt();
+            if (version != VERSION) {
+                throw new MalformedGraphException("Unsupported binary graph version " + version);
+            }
+            final int numVertices = input.readInt();
+            final int numConnections = input.readInt();
+            if (numVertices < 0 || numConnections < 0) {
+                throw new MalformedGraphException("Invalid binary graph header");
+            }
+
+            final int[] ids = readInts(input, numVertices);
+            final int[] xs = readInts(input, numVertices);
+            final int[] ys = readInts(input, numVertices);
+            final int[] offsets = readInts(input, numVertices + 1);
+            final int[] targets = readInts(input, numConnections);
+            return build(ids, xs, ys, offsets, targets);
+        } catch (EOFException e) {
+            throw new MalformedGraphException("Binary graph ends unexpectedly");
+        }
+    }
+
+    private static int[] readInts(DataInputStream input, int length) throws IOException {
+        // The array grows as values arrive so that a corrupt length cannot exhaust the memory
+        int[] values = new int[Math.min(length, BUFFER_SIZE)];
+        for (int i = 0; i < length; i++) {
+            if (i == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min(length, 2L * i));
+            }
+            values[i] = input.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Reads a graph from the given file.
+     *
+     * @param file the file
+     *
+     * @return the graph
+     *
+     * @throws IOException if the file could not be read
+     * @throws MalformedGraphException if the file is not a valid graph in the binary format
+     */
+    static Graph read(Path file) throws IOException, MalformedGraphException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_INTS * Integer.BYTES) {
+                throw new MalformedGraphException("File is too short for a binary graph");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new MalformedGraphException("File is too large for a binary graph");
+            }
+
+            final IntBuffer data =
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asIntBuffer();
+            if (data.get() != MAGIC) {
+                throw new MalformedGraphException("File is not a binary graph");
+            }
+            final int version = data.get();
+            if (version != VERSION) {
+                throw new MalformedGraphException("Unsupported binary graph version " + version);
+            }
+            final int numVertices = data.get();
+            final int numConnections = data.get();
+            final long expectedInts = HEADER_INTS + 4L * numVertices + 1 + numConnections;
+            if (numVertices < 0 || numConnections < 0 || size != expectedInts * Integer.BYTES) {
+                throw new MalformedGraphException("Binary graph size does not match its header");
+            }
+
+            final int[] ids = new int[numVertices];
+            final int[] xs = new int[numVertices];
+            final int[] ys = new int[numVertices];
+            final int[] offsets = new int[numVertices + 1];
+            final int[] targets = new int[numConnections];
+            data.get(ids).get(xs).get(ys).get(offsets).get(targets);
+
+            return build(ids, xs, ys, offsets, targets);
+        }
+    }
+
+    private static Graph build(int[] ids, int[] xs, int[] ys, int[] offsets, int[] targets)
+            throws MalformedGraphException {
+        final int[] sortedIDs = ids.clone();
+        Arrays.sort(sortedIDs);
+        for (int i = 1; i < sortedIDs.length; i++) {
+            if (sortedIDs[i] == sortedIDs[i - 1]) {
+                throw new MalformedGraphException("Duplicate vertex ID " + sortedIDs[i]);
+            }
+        }
+
+        if (offsets[0] != 0 || offsets[ids.length] != targets.length) {
+            throw new MalformedGraphException("Invalid connection offsets");
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (offsets[i + 1] < offsets[i]) {
+                throw new MalformedGraphException("Invalid connection offsets");
+            }
+        }
+
+        final GraphBuilder builder = new GraphBuilder(ids.length, targets.length);
+        for (int i = 0; i < ids.length; i++) {
+            builder.addVertex(ids[i], xs[i], ys[i]);
+        }
+        for (int i = 0; i < ids.length; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                if (targets[j] < 0 || targets[j] >= ids.length) {
+                    throw new MalformedGraphException("Connection from vertex " + ids[i] +
+                            " refers to a vertex that does not exist");
+                }
+                builder.addConnection(ids[i], ids[targets[j]]);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,47 @@
+package util;
+
+import java.nio.file.Path;
+
+/**
+ * The file formats graphs can be saved in.
+ */
+public enum GraphFormat {
+    /**
+     * The human-readable text format, which lists the vertices and then the connections of every
+     * vertex with one line per vertex.
+     */
+    TEXT(".graph"),
+    /**
+     * The compact binary format, which stores the vertices and connections as arrays of integers
+     * and loads much faster than the text format.
+     */
+    BINARY(".bgraph");
+
+    private final String extension;
+
+    GraphFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the usual file extension of the format including the leading dot.
+     *
+     * @return the file extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the format of the given file based on its extension. Files without the extension of
+     * the binary format are assumed to be text.
+     *
+     * @param file the file
+     *
+     * @return the format of the file
+     */
+    public static GraphFormat of(Path file) {
+        final Path fileName = file.getFileName();
+        return fileName != null && fileName.toString().endsWith(BINARY.extension) ? BINARY : TEXT;
+    }
+}
@@ -0,0 +1,136 @@
+package util;
+
+import graph.Graph;
+import graph.Vertex;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Reads and writes graphs without any user interface, so graphs can be loaded and saved outside of
+ * the editor. Files are read and written in the format given by their extension, see
+ * {@link GraphFormat#of(Path)}.
+ */
+public final class GraphIO {
+
+    private GraphIO() {
+    }
+
+    /**
+     * Reads a graph from the given file.
+     *
+     * @param file the file
+     *
+     * @return the graph
+     *
+     * @throws IOException if the file could not be read
+     * @throws MalformedGraphException if the file does not contain a valid graph
+     */
+    public static Graph read(Path file) throws IOException, MalformedGraphException {
+        if (GraphFormat.of(file) == GraphFormat.BINARY) {
+            // Mapping the file avoids copying it through a stream
+            return BinaryGraphFormat.read(file);
+        }
+        try (InputStream input = Files.newInputStream(file)) {
+            return read(input, GraphFormat.TEXT);
+        }
+    }
+
+    /**
+     * Reads a graph in the given format from the given input. The input is not closed.
+     *
+     * @param input the input
+     * @param format the format of the input
+     *
+     * @return the graph
+     *
+     * @throws IOException if the input could not be read
+     * @throws MalformedGraphException if the input does not contain a valid graph
+     */
+    public static Graph read(InputStream input, GraphFormat format)
+            throws IOException, MalformedGraphException {
+        switch (format) {
+            case BINARY:
+                return BinaryGraphFormat.read(input);
+            default:
+                return GraphParser.parse(input);
+        }
+    }
+
+    /**
+     * Writes the given graph to the given file, replacing its contents.
+     *
+     * @param graph the graph
+     * @param file the file
+     *
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Graph graph, Path file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(file)) {
+            write(graph, output, GraphFormat.of(file));
+        }
+    }
+
+    /**
+     * Writes the given graph in the given format to the given output. The output is flushed but
+     * not closed.
+     *
+     * @param graph the graph
+     * @param output the output
+     * @param format the format to write
+     *
+     * @throws IOException if the output could not be written
+     */
+    public static void write(Graph graph, OutputStream output, GraphFormat format)
+            throws IOException {
+        switch (format) {
+            case BINARY:
+                BinaryGraphFormat.write(graph, output);
+                break;
+            default:
+                writeText(graph, output);
+                break;
+        }
+    }
+
+    private static void writeText(Graph graph, OutputStream output) throws IOException {
+        final PrintWriter printWriter = new PrintWriter(
+                new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.US_ASCII)));
+        printWriter.println("# Lines beginning with '#' are ignored");
+        printWriter.println("# Number of Vertices:");
+        final Collection<Vertex> vertices = graph.getVertices();
+        printWriter.println(vertices.size());
+        printWriter.println("# Vertices");
+        printWriter.println("# ID X Y");
+        for (Vertex vertex : vertices) {
+            printWriter.println(vertex.getID() + " " + vertex.getX() + " " + vertex.getY());
+        }
+        printWriter.println("# Connections");
+        printWriter.println("# ID : connectionID connectionID ...");
+        for (Vertex vertex : vertices) {
+            // Don't print out a line for vertices that have no connections
+            if (vertex.getNeighbors().isEmpty()) {
+                continue;
+            }
+
+            printWriter.print(vertex.getID() + " ");
+            for (Vertex connected : vertex.getNeighbors()) {
+                printWriter.print(connected.getID() + " ");
+            }
+            printWriter.println();
+        }
+
+        // PrintWriter swallows errors so they have to be checked for explicitly
+        if (printWriter.checkError()) {
+            throw new IOException("Could not write graph");
+        }
+    }
+}
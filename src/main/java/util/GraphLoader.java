@@ -0,0 +1,132 @@
+package util;
+
+import graph.Graph;
+import visualization.Drawer;
+
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Loads a graph from disk on a background thread while showing its progress. The graph is built
+ * separately from the current graph and only replaces it once it has been loaded completely, so
+ * a failed or cancelled load leaves the current graph untouched.
+ */
+final class GraphLoader extends SwingWorker<Graph, Void> {
+    // How often the progress dialog is updated and checked for cancellation
+    private static final int POLL_INTERVAL_MILLIS = 100;
+
+    private final Path file;
+    private final ProgressMonitor progressMonitor;
+    private final Timer pollTimer;
+
+    /**
+     * Constructs a loader for the given file. Must be called on the event dispatch thread.
+     *
+     * @param file the file to load
+     */
+    GraphLoader(Path file) {
+        this.file = file;
+        progressMonitor = new ProgressMonitor(Drawer.getFrame(), "Loading " + file.getFileName(),
+                null, 0, 100);
+        pollTimer = new Timer(POLL_INTERVAL_MILLIS, e -> {
+            if (progressMonitor.isCanceled()) {
+                cancel(true);
+            } else {
+                progressMonitor.setProgress(getProgress());
+            }
+        });
+    }
+
+    /**
+     * Starts loading the graph.
+     */
+    void start() {
+        pollTimer.start();
+        execute();
+    }
+
+    @Override
+    protected Graph doInBackground() throws IOException, MalformedGraphException {
+        if (GraphFormat.of(file) == GraphFormat.BINARY) {
+            // Binary files are mapped into memory and read in bulk so there is no progress to track
+            return GraphIO.read(file);
+        }
+        try (InputStream input = new ProgressInputStream(Files.newInputStream(file),
+                Files.size(file))) {
+            return GraphIO.read(input, GraphFormat.TEXT);
+        }
+    }
+
+    @Override
+    protected void done() {
+        pollTimer.stop();
+        progressMonitor.close();
+        if (isCancelled()) {
+            return;
+        }
+
+        try {
+            Drawer.setGraph(get());
+        } catch (InterruptedException | CancellationException e) {
+            // The load was cancelled so the current graph is kept
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof InterruptedIOException) {
+                return;
+            }
+            JOptionPane.showMessageDialog(Drawer.getFrame(),
+                    "Could not load " + file.getFileName() + ": " + cause.getMessage(),
+                    "Load Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Reports how much of the input has been read as the progress of the loader and stops reading
+     * once the loader is cancelled.
+     */
+    private final class ProgressInputStream extends FilterInputStream {
+        private final long size;
+        private long bytesRead;
+
+        ProgressInputStream(InputStream input, long size) {
+            super(input);
+            this.size = Math.max(1, size);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int next = super.read();
+            if (next >= 0) {
+                advance(1);
+            }
+            return next;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int count = super.read(b, off, len);
+            if (count > 0) {
+                advance(count);
+            }
+            return count;
+        }
+
+        private void advance(int count) throws InterruptedIOException {
+            if (isCancelled()) {
+                throw new InterruptedIOException("Loading cancelled");
+            }
+            bytesRead += count;
+            setProgress((int) Math.min(100, bytesRead * 100 / size));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package util;
+
+import graph.Graph;
+import graph.GraphBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads graphs saved in the text format written by {@link FileOperations}. The input is read in
+ * large blocks and integers are parsed directly from the bytes, so no strings are created while
+ * reading.
+ * <p>
+ * The format consists of the number of vertices, one line per vertex holding its ID and its x and
+ * y position, and one line per vertex with connections holding its ID followed by the IDs of the
+ * vertices it is connected to. Values are separated by spaces and lines beginning with {@code #}
+ * are ignored.
+ */
+final class GraphParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Space is reserved for at most this many vertices up front in case the count is corrupt
+    private static final int MAX_PRESIZE = 1 << 20;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // The position of the next byte in the input
+    private int line = 1;
+    private int column = 1;
+
+    private GraphParser(InputStream input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads a graph from the given input. The input is not closed.
+     *
+     * @param input the input
+     *
+     * @return the graph
+     *
+     * @throws IOException if the input could not be read
+     * @throws MalformedGraphException if the input is not a valid graph
+     */
+    static Graph parse(InputStream input) throws IOException, MalformedGraphException {
+        return new GraphParser(input).parse();
+    }
+
+    private Graph parse() throws IOException, MalformedGraphException {
+        if (!nextLine()) {
+            throw error("Missing number of vertices");
+        }
+        final int numVertices = readInt();
+        if (numVertices < 0) {
+            throw error("Invalid number of vertices");
+        }
+        endLine("Invalid number of vertices");
+
+        // create each vertex from its definition
+        final int presize = Math.min(numVertices, MAX_PRESIZE);
+        final GraphBuilder builder = new GraphBuilder(presize, presize * 4);
+        int[] ids = new int[presize];
+        for (int i = 0; i < numVertices; i++) {
+            if (!nextLine()) {
+                throw error("Missing vertex definition(s)");
+            }
+            if (i == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(numVertices, i * 2));
+            }
+            ids[i] = readInt();
+            final int x = readInt();
+            final int y = readInt();
+            endLine("Invalid vertex definition");
+            builder.addVertex(ids[i], x, y);
+        }
+
+        // Sorted IDs allow checking the vertices of connections with a binary search
+        Arrays.sort(ids);
+        for (int i = 1; i < numVertices; i++) {
+            if (ids[i] == ids[i - 1]) {
+                throw new MalformedGraphException("Duplicate vertex ID " + ids[i]);
+            }
+        }
+
+        // create the connections between vertices
+        while (nextLine()) {
+            final int id = readVertexID(ids);
+            while (hasValue()) {
+                builder.addConnection(id, readVertexID(ids));
+            }
+        }
+
+        return builder.build();
+    }
+
+    private int readVertexID(int[] ids) throws IOException, MalformedGraphException {
+        skipSpaces();
+        final int valueLine = line;
+        final int valueColumn = column;
+        final int id = readInt();
+        if (Arrays.binarySearch(ids, id) < 0) {
+            throw new MalformedGraphException("Invalid connection: vertex " + id +
+                    " does not exist", valueLine, valueColumn);
+        }
+        return id;
+    }
+
+    /**
+     * Moves to the first value of the next line that is neither blank nor a comment.
+     *
+     * @return whether there is such a line
+     */
+    private boolean nextLine() throws IOException {
+        while (true) {
+            skipSpaces();
+            final int next = peek();
+            if (next < 0) {
+                return false;
+            } else if (next == '#') {
+                while (peek() >= 0 && peek() != '\n') {
+                    advance();
+                }
+            } else if (next == '\n') {
+                advance();
+            } else {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns whether there is another value on the current line.
+     *
+     * @return whether there is another value
+     */
+    private boolean hasValue() throws IOException {
+        skipSpaces();
+        return peek() >= 0 && peek() != '\n';
+    }
+
+    private void endLine(String message) throws IOException, MalformedGraphException {
+        if (hasValue()) {
+            throw error(message);
+        }
+    }
+
+    private int readInt() throws IOException, MalformedGraphException {
+        skipSpaces();
+        if (peek() < 0 || peek() == '\n') {
+            throw error("Missing number");
+        }
+
+        // Errors are reported at the start of the number
+        final int valueLine = line;
+        final int valueColumn = column;
+        final boolean negative = peek() == '-';
+        if (negative) {
+            advance();
+        }
+        if (!isDigit(peek())) {
+            throw new MalformedGraphException("Invalid number", valueLine, valueColumn);
+        }
+
+        long value = 0;
+        while (isDigit(peek())) {
+            value = value * 10 + peek() - '0';
+            if (value > (long) Integer.MAX_VALUE + (negative ? 1 : 0)) {
+                throw new MalformedGraphException("Number out of range", valueLine, valueColumn);
+            }
+            advance();
+        }
+        if (peek() >= 0 && !isSpace(peek()) && peek() != '\n') {
+            throw new MalformedGraphException("Invalid number", valueLine, valueColumn);
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private void skipSpaces() throws IOException {
+        while (isSpace(peek())) {
+            advance();
+        }
+    }
+
+    private static boolean isSpace(int next) {
+        return next == ' ' || next == '\t' || next == '\r';
+    }
+
+    private static boolean isDigit(int next) {
+        return next >= '0' && next <= '9';
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = input.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private void advance() {
+        if (buffer[position++] == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+    }
+
+    private MalformedGraphException error(String message) {
+        return new MalformedGraphException(message, line, column);
+    }
+}
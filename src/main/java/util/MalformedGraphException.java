@@ -7,6 +7,9 @@ public class MalformedGraphException extends Exception {
 
     private static final long serialVersionUID = 543155159926511493L;
 
+    private final int line;
+    private final int column;
+
     /**
      * Constructs a new exception with the given error message.
      *
@@ -14,5 +17,39 @@ public class MalformedGraphException extends Exception {
      */
     public MalformedGraphException(String message) {
         super(message);
+        line = -1;
+        column = -1;
+    }
+
+    /**
+     * Constructs a new exception with the given error message for the error at the given position
+     * in the saved graph.
+     *
+     * @param message the error message
+     * @param line the line of the error starting at one
+     * @param column the column of the error starting at one
+     */
+    public MalformedGraphException(String message, int line, int column) {
+        super(message + " at line " + line + ", column " + column);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Returns the line of the error starting at one or {@code -1} if the position is unknown.
+     *
+     * @return the line of the error
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the column of the error starting at one or {@code -1} if the position is unknown.
+     *
+     * @return the column of the error
+     */
+    public int getColumn() {
+        return column;
     }
 }
@@ -5,7 +5,6 @@ import graph.Graph;
 import graph.Vertex;
 import util.Action;
 import util.FileOperations;
-import util.MalformedGraphException;
 import util.MouseMode;
 
 import javax.swing.JFrame;
@@ -15,6 +14,7 @@ import javax.swing.WindowConstants;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
@@ -24,6 +24,7 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 public class Drawer extends JPanel implements MouseMotionListener, MouseListener, KeyListener {
     private static final long serialVersionUID = 5174812665272092921L;
@@ -32,6 +33,7 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
 
     private static final double CONNECTION_LENIENCY = 30.0;
     private static final InfoPanel infoPanel = new InfoPanel();
+    private static final SceneLayer sceneLayer = new SceneLayer();
     private static final ArrayList<Button> buttons = new ArrayList<>();
     private static final Font drawFont = new Font("Arial", Font.BOLD, 16);
     private static JFrame frame;
@@ -175,22 +177,37 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
                 JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
 
         if (response == JOptionPane.YES_OPTION) {
-            graph = new Graph();
-            propertiesPanel = new PropertiesPanel(graph);
-            infoNode = null;
-            selectedVertex = null;
-
-            canvasX = 0;
-            canvasY = 0;
-            dragged = false;
-            draggingCanvas = false;
+            setGraph(new Graph());
         }
     }
 
+    /**
+     * Replaces the current graph of the application with the given graph.
+     *
+     * @param newGraph the new graph
+     */
+    public static void setGraph(Graph newGraph) {
+        graph = newGraph;
+        propertiesPanel = new PropertiesPanel(graph);
+        infoNode = null;
+        selectedVertex = null;
+
+        canvasX = 0;
+        canvasY = 0;
+        dragged = false;
+        draggingCanvas = false;
+        Graphinator.redraw();
+    }
+
     public void paintComponent(Graphics g) {
         g.setFont(drawFont);
-        g.setColor(frame.getBackground());
-        g.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+        // The graph itself comes from the scene layer and everything that follows the mouse is
+        // drawn on top of it
+        sceneLayer.draw(g, this, graph, canvasX, canvasY, frame.getBackground());
+        graph.drawHighlights(g, canvasX, canvasY);
+        if (selectedVertex != null) {
+            selectedVertex.draw(g, canvasX, canvasY);
+        }
 
         g.setColor(Color.white);
         // If the user is dragging a new connection show the connection preview
@@ -209,11 +226,8 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
                     }
                 }
             }
-            for (Vertex vertex : graph.getVertices()) {
-                if (vertex.pointInVertex(getCanvasPosition(mouseX, mouseY))) {
-                    drawGhost = false;
-                    break;
-                }
+            if (graph.getVertexAt(getCanvasPosition(mouseX, mouseY)) != null) {
+                drawGhost = false;
             }
             if (propertiesPanel.getDrawingRectangle().contains(mouseX, mouseY)) {
                 drawGhost = false;
@@ -225,8 +239,6 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
         }
 
         if (graph != null) {
-            graph.drawGraph(g, canvasX, canvasY);
-
             propertiesPanel.draw(g);
 
             synchronized (buttons) {
@@ -277,10 +289,14 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
     }
 
     public void mouseMoved(MouseEvent e) {
+        // Only what follows the mouse needs to be repainted, both where it was and where it is
+        final Rectangle dirtyRegion = getHoverBounds();
         updateMousePosition(e);
 
         // Update the buttons to reflect whether the mouse is over them
+        boolean buttonsChanged = false;
         for (Button button : buttons) {
+            final ButtonState previousState = button.getButtonState();
             // If the button is not already selected and the mouse is over it put it in the hover
             // state
             if (button.getButtonState() != ButtonState.SELECTED && button.contains(
@@ -289,6 +305,7 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
             } else if (button.getButtonState() == ButtonState.HOVER) {
                 button.setButtonState(ButtonState.NORMAL);
             }
+            buttonsChanged |= button.getButtonState() != previousState;
         }
 
         // Highlight any vertices and connections that are within the removal range
@@ -297,15 +314,45 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
         }
 
         // Update the vertex to draw the info panel for
-        infoNode = null;
-        for (Vertex vertex : graph.getVertices()) {
-            if (vertex.pointInVertex(getCanvasPosition(e))) {
-                infoNode = vertex;
-                break;
-            }
+        infoNode = graph.getVertexAt(getCanvasPosition(e));
+
+        if (buttonsChanged) {
+            repaint();
+        } else {
+            dirtyRegion.add(getHoverBounds());
+            repaint(dirtyRegion);
         }
+    }
 
-        repaint();
+    /**
+     * Returns the on-screen area covered by what is drawn depending on the position of the mouse:
+     * the ghost vertex, the connection preview, the info panel and the highlighted vertices and
+     * connections.
+     *
+     * @return the area that changes as the mouse moves
+     */
+    private Rectangle getHoverBounds() {
+        final int ghostReach = Vertex.GHOST_RADIUS + 1;
+        final Rectangle bounds = new Rectangle(mouseX - ghostReach, mouseY - ghostReach,
+                ghostReach * 2 + 1, ghostReach * 2 + 1);
+        if (mode == MouseMode.CONNECTION && selectedVertex != null) {
+            // The connection preview runs from the selected vertex to the mouse
+            final ScreenPosition position = selectedVertex.getScreenPosition(canvasX, canvasY);
+            bounds.add(position.getX(), position.getY());
+        }
+        if (infoNode != null) {
+            final ScreenPosition position = infoNode.getScreenPosition(canvasX, canvasY);
+            final int reach = (int) Math.ceil(infoPanel.getReach()) + 1;
+            bounds.add(new Rectangle(position.getX() - reach, position.getY() - reach,
+                    reach * 2 + 1, reach * 2 + 1));
+        }
+        final Rectangle highlightBounds = graph.getHighlightBounds();
+        if (!highlightBounds.isEmpty()) {
+            highlightBounds.translate(canvasX, canvasY);
+            highlightBounds.grow(1, 1);
+            bounds.add(highlightBounds);
+        }
+        return bounds;
     }
 
     public void mouseClicked(MouseEvent arg0) {
@@ -350,25 +397,23 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
             }
 
             if (mode == MouseMode.VERTEX) {
-                for (Vertex vertex : graph.getVertices()) {
-                    // Do not allow creating vertices on top of each other
-                    if (vertex.pointInVertex(getCanvasPosition(e))) {
-                        // The vertex may be dragged to alter its position
-                        selectedVertex = vertex;
-                        vertex.select();
-                        return;
-                    }
+                final Vertex vertex = graph.getVertexAt(getCanvasPosition(e));
+                // Do not allow creating vertices on top of each other
+                if (vertex != null) {
+                    // The vertex may be dragged to alter its position
+                    selectedVertex = vertex;
+                    vertex.select();
+                    return;
                 }
                 graph.createVertex(getCanvasPosition(e));
             } else if (mode == MouseMode.CONNECTION) {
                 // See if we are creating a connection between vertices
-                for (Vertex vertex : graph.getVertices()) {
-                    if (vertex.pointInVertex(getCanvasPosition(e))) {
-                        // Set the vertex as the starting vertex for the connection
-                        selectedVertex = vertex;
-                        vertex.select();
-                        return;
-                    }
+                final Vertex vertex = graph.getVertexAt(getCanvasPosition(e));
+                if (vertex != null) {
+                    // Set the vertex as the starting vertex for the connection
+                    selectedVertex = vertex;
+                    vertex.select();
+                    return;
                 }
             } else if (mode == MouseMode.REMOVE) {
                 // Remove the vertices and connections that are within range
@@ -403,26 +448,10 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
                 } else if (mode == MouseMode.CONNECTION) {
                     // If we were dragging a connection from a vertex
                     if (selectedVertex != null) {
-                        double closestDistance = CONNECTION_LENIENCY;
-                        Vertex closestVertex = null;
-                        for (Vertex vertex : graph.getVertices()) {
-                            // Skip the selected vertex as we don't want to have self-loops
-                            if (vertex.equals(selectedVertex)) {
-                                continue;
-                            }
-                            // If the cursor is within the vertex toggle a connection
-                            if (vertex.pointInVertex(getCanvasPosition(e))) {
-                                connectVertices(selectedVertex, vertex);
-                                return;
-                            } else {
-                                final double distance = vertex.distance(getCanvasPosition(e));
-                                if (distance < closestDistance) {
-                                    closestDistance = distance;
-                                    closestVertex = vertex;
-                                }
-                            }
-                        }
-
+                        // The closest vertex is the one under the cursor if there is one. Skip
+                        // the selected vertex as we don't want to have self-loops
+                        final Vertex closestVertex = graph.getNearestVertex(
+                                getCanvasPosition(e), CONNECTION_LENIENCY, selectedVertex);
                         if (closestVertex != null) {
                             connectVertices(selectedVertex, closestVertex);
                             return;
@@ -443,13 +472,7 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
 
         // TODO Don't go through every node but instead set it above
         // Update the vertex to draw the info panel for
-        infoNode = null;
-        for (Vertex vertex : graph.getVertices()) {
-            if (vertex.pointInVertex(getCanvasPosition(e))) {
-                infoNode = vertex;
-                break;
-            }
-        }
+        infoNode = graph.getVertexAt(getCanvasPosition(e));
 
         repaint();
     }
@@ -468,12 +491,15 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
         if (infoNode != null) {
             infoPanel.setVertex(infoNode);
 
+            // Only the vertices near the info node can be covered by the info panel
+            final List<Vertex> nearbyVertices = graph.getVerticesWithin(
+                    new CanvasPosition(infoNode.getX(), infoNode.getY()), infoPanel.getReach() + 1);
             int fewestConflicts = Integer.MAX_VALUE;
             Diagonal bestDiagonal = Diagonal.LOWER_RIGHT;
             for (final Diagonal diagonal : Diagonal.values()) {
                 final RectangleOnScreen rectangle = infoPanel.getRectangle(diagonal, canvasX,
                         canvasY);
-                final int conflicts = calculateConflicts(rectangle);
+                final int conflicts = calculateConflicts(rectangle, nearbyVertices);
                 if (conflicts < fewestConflicts) {
                     bestDiagonal = diagonal;
                     fewestConflicts = conflicts;
@@ -484,9 +510,9 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
         }
     }
 
-    private int calculateConflicts(RectangleOnScreen rectangle) {
+    private int calculateConflicts(RectangleOnScreen rectangle, List<Vertex> nearbyVertices) {
         int conflicts = 0;
-        for (final Vertex vertex : graph.getVertices()) {
+        for (final Vertex vertex : nearbyVertices) {
             if (rectangle.containsVertex(vertex, canvasX, canvasY)) {
                 conflicts++;
             }
@@ -573,7 +599,7 @@ public class Drawer extends JPanel implements MouseMotionListener, MouseListener
                     changeMouseMode(MouseMode.REMOVE);
                     break;
             }
-        } catch (IOException | MalformedGraphException e1) {
+        } catch (IOException e1) {
             e1.printStackTrace();
         } finally {
             repaint();
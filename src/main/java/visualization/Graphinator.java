@@ -16,9 +16,11 @@ public class Graphinator {
     }
 
     /**
-     * Initiates an immediate redraw of the program.
+     * Initiates an immediate redraw of the program. Does nothing if the program has no window.
      */
     public static void redraw() {
-        drawer.repaint();
+        if (drawer != null) {
+            drawer.repaint();
+        }
     }
 }
@@ -26,6 +26,16 @@ public class InfoPanel {
         this.vertex = vertex;
     }
 
+    /**
+     * Returns the greatest distance from the vertex to any point the info panel may cover,
+     * whichever direction it is drawn in.
+     *
+     * @return the reach of the info panel
+     */
+    public double getReach() {
+        return Math.sqrt(width * width + height * height);
+    }
+
     /**
      * Sets the draw direction for the info panel.
      *
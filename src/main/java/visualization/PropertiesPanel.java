@@ -1,6 +1,7 @@
 package visualization;
 
 import graph.Graph;
+import graph.GraphProperties;
 
 import java.awt.Color;
 import java.awt.Font;
@@ -9,13 +10,16 @@ import java.awt.Rectangle;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 /**
  * Responsible for drawing the properties of the current graph.
  */
 public class PropertiesPanel {
     private final Graph graph;
-    private final Map<String, Callable> properties = new HashMap<>();
+    private final Map<String, Callable<?>> properties = new HashMap<>();
+
+    private static final String COMPUTING = "computing\u2026";
 
     private final int width = 200;
     private int height = 20;
@@ -36,18 +40,32 @@ public class PropertiesPanel {
         addProperty("Number of Vertices: ", graph::numberOfVertices);
         //TODO For directed graphs don't divide by two
         addProperty("Number of Connections: ", () -> graph.numberOfConnections() / 2);
-        addProperty("Number of Colors: ", graph::numberOfColors);
-        addProperty("Maximum Degree: ", () -> graph.properties().getMaxDegree());
-        addProperty("Bipartite: ", () -> graph.properties().isBipartite());
-        addProperty("Connected: ", () -> graph.properties().isConnected());
-        addProperty("Tree: ", () -> graph.properties().isTree());
-        addProperty("Regular: ", () -> graph.properties().isRegular());
-        addProperty("Complete: ", () -> graph.properties().isComplete());
-        addProperty("Number of Cycles: ", () -> graph.properties().numCycles());
-        addProperty("Girth: ", () -> graph.properties().getGirth());
+        // Heuristic colorings only give an upper bound on the number of colors needed
+        addProperty("Number of Colors: ",
+                () -> (graph.isNumberOfColorsOptimal() ? "" : "\u2264 ") + graph.numberOfColors());
+        addProperty("Maximum Degree: ", analyzed(GraphProperties::getMaxDegree));
+        addProperty("Bipartite: ", analyzed(GraphProperties::isBipartite));
+        addProperty("Connected: ", analyzed(GraphProperties::isConnected));
+        addProperty("Tree: ", analyzed(GraphProperties::isTree));
+        addProperty("Regular: ", analyzed(GraphProperties::isRegular));
+        addProperty("Complete: ", analyzed(GraphProperties::isComplete));
+        // Counting stops once a graph has too many cycles to count in reasonable time
+        addProperty("Number of Cycles: ", () -> graph.properties().areCyclesStale() ? COMPUTING :
+                (graph.properties().isCycleCountExact() ? "" : "\u2265 ") +
+                        graph.properties().numCycles());
+        addProperty("Girth: ", analyzed(GraphProperties::getGirth));
+    }
+
+    /**
+     * Returns a callable reading the given property from the latest calculated properties, or
+     * reporting that it is being computed while the properties are stale.
+     */
+    private Callable<Object> analyzed(Function<GraphProperties, Object> property) {
+        return () -> graph.properties().isStale() ? COMPUTING :
+                property.apply(graph.properties().getProperties());
     }
 
-    private void addProperty(String description, Callable callable) {
+    private void addProperty(String description, Callable<?> callable) {
         height += 20;
         properties.put(description, callable);
     }
@@ -64,7 +82,7 @@ public class PropertiesPanel {
         g.setFont(new Font("Arial", Font.PLAIN, 12));
         g.setColor(Color.WHITE);
         int y = 20;
-        for (Map.Entry<String, Callable> property : properties.entrySet()) {
+        for (Map.Entry<String, Callable<?>> property : properties.entrySet()) {
             try {
                 g.drawString(property.getKey() + property.getValue().call().toString(), 10, y);
             } catch (Exception e) {
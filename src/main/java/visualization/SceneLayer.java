@@ -0,0 +1,71 @@
+package visualization;
+
+import graph.Graph;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+
+/**
+ * Keeps the graph rendered to an image so that repaints which do not change the graph, such as
+ * the mouse hovering over it, only have to copy the image. The image is rendered again whenever
+ * the graph, its scene version, the canvas shift or the size of the component changes.
+ */
+final class SceneLayer {
+    private BufferedImage image;
+    private Graph renderedGraph;
+    private long renderedVersion;
+    private int renderedCanvasX;
+    private int renderedCanvasY;
+
+    /**
+     * Draws the scene of the given graph to the given canvas, rendering it first if the cached
+     * scene is out of date.
+     *
+     * @param g the canvas
+     * @param component the component being painted
+     * @param graph the graph
+     * @param canvasX the x canvas shift
+     * @param canvasY the y canvas shift
+     * @param background the background color of the scene
+     */
+    void draw(Graphics g, Component component, Graph graph, int canvasX, int canvasY,
+            Color background) {
+        final int width = Math.max(1, component.getWidth());
+        final int height = Math.max(1, component.getHeight());
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            final GraphicsConfiguration configuration = component.getGraphicsConfiguration();
+            image = configuration == null ?
+                    new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB) :
+                    configuration.createCompatibleImage(width, height);
+            renderedGraph = null;
+        }
+
+        // Pending changes are applied first since coloring them changes the version. The version is
+        // then read before rendering so that colorings published in the background while
+        // rendering cause the scene to be rendered again.
+        graph.checkForStructuralChanges();
+        final long version = graph.getSceneVersion();
+        if (graph != renderedGraph || version != renderedVersion || canvasX != renderedCanvasX
+                || canvasY != renderedCanvasY) {
+            final Graphics2D imageGraphics = image.createGraphics();
+            try {
+                imageGraphics.setClip(0, 0, width, height);
+                imageGraphics.setColor(background);
+                imageGraphics.fillRect(0, 0, width, height);
+                graph.drawScene(imageGraphics, canvasX, canvasY);
+            } finally {
+                imageGraphics.dispose();
+            }
+            renderedGraph = graph;
+            renderedVersion = version;
+            renderedCanvasX = canvasX;
+            renderedCanvasY = canvasY;
+        }
+
+        g.drawImage(image, 0, 0, null);
+    }
+}
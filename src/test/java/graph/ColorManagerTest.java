@@ -0,0 +1,103 @@
+package graph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@SuppressWarnings("JavaDoc")
+public class ColorManagerTest {
+
+    private Graph graph;
+    private ColorManager colorManager;
+    private ConnectionManager connectionManager;
+    private int snapshots;
+
+    @Before
+    public void init() {
+        snapshots = 0;
+        graph = new Graph() {
+            @Override
+            public CompactGraph snapshot() {
+                // The properties always need a snapshot so only those taken for coloring count
+                for (final StackTraceElement element : new Throwable().getStackTrace()) {
+                    if (element.getClassName().equals(ColorManager.class.getName())) {
+                        snapshots++;
+                        break;
+                    }
+                }
+                return super.snapshot();
+            }
+        };
+        colorManager = graph.getColorManager();
+        connectionManager = graph.getConnectionManager();
+    }
+
+    @Test
+    public void testConnectionWithoutConflictKeepsColors() {
+        final Vertex[] vertices = createVertices(0, 1, 0);
+        connect(vertices[0], vertices[1]);
+
+        connect(vertices[1], vertices[2]);
+
+        assertColors(vertices, 0, 1, 0);
+    }
+
+    @Test
+    public void testConflictTakesFreeColor() {
+        final Vertex[] vertices = createVertices(0, 1, 2, 0);
+        connect(vertices[0], vertices[1]);
+        connect(vertices[1], vertices[2]);
+        connect(vertices[2], vertices[0]);
+
+        // The third vertex can no longer use color zero but may use color one
+        connect(vertices[3], vertices[2]);
+        connect(vertices[3], vertices[0]);
+
+        assertColors(vertices, 0, 1, 2, 1);
+    }
+
+    @Test
+    public void testConflictSwapsKempeChain() {
+        final Vertex[] vertices = createVertices(0, 1, 0, 1);
+        connect(vertices[0], vertices[1]);
+        connect(vertices[2], vertices[3]);
+
+        connect(vertices[0], vertices[2]);
+
+        assertEquals(2, colorManager.numberOfColors());
+        for (int i = 0; i < vertices.length; i++) {
+            for (final Vertex neighbor : connectionManager.getAdjacentVertices(vertices[i])) {
+                assertNotEquals(vertices[i].getColor(), neighbor.getColor());
+            }
+        }
+    }
+
+    private Vertex[] createVertices(int... colors) {
+        final Vertex[] vertices = new Vertex[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            vertices[i] = graph.getVertex(graph.createVertex(new CanvasPosition(i, i)));
+        }
+        // Without connections every vertex is colored right away, before the test colors them
+        graph.checkForStructuralChanges();
+        for (int i = 0; i < colors.length; i++) {
+            vertices[i].setColor(colors[i]);
+        }
+        return vertices;
+    }
+
+    private void connect(Vertex start, Vertex end) {
+        graph.addConnection(start, end);
+        graph.addConnection(end, start);
+        graph.checkForStructuralChanges();
+        // Repairing the coloring must not need a snapshot of the graph
+        assertEquals(0, snapshots);
+    }
+
+    private static void assertColors(Vertex[] vertices, int... colors) {
+        for (int i = 0; i < vertices.length; i++) {
+            assertEquals(colors[i], vertices[i].getColor());
+        }
+    }
+}
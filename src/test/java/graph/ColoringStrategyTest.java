@@ -0,0 +1,80 @@
+package graph;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("JavaDoc")
+public class ColoringStrategyTest {
+
+    @Test
+    public void testStrategiesProduceProperColorings() {
+        final Random random = new Random(3);
+        for (int trial = 0; trial < 50; trial++) {
+            final Graph graph = new Graph();
+            final Vertex[] vertices = new Vertex[5 + random.nextInt(40)];
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = graph.getVertex(graph.createVertex(new CanvasPosition(0, 0)));
+            }
+            final double density = random.nextDouble() * 0.5;
+            for (int i = 0; i < vertices.length; i++) {
+                for (int j = i + 1; j < vertices.length; j++) {
+                    if (random.nextDouble() < density) {
+                        graph.addConnection(vertices[i], vertices[j]);
+                        graph.addConnection(vertices[j], vertices[i]);
+                    }
+                }
+            }
+
+            final CompactGraph snapshot = graph.snapshot();
+            for (final ConnectedComponent connectedComponent : ConnectedComponent.findAll(
+                    snapshot)) {
+                final ComponentGraph component = new ComponentGraph(snapshot,
+                        connectedComponent.getIndices());
+                final Coloring exact = ColoringStrategy.EXACT.color(component);
+                assertTrue(exact.isOptimal());
+                for (final ColoringStrategy strategy : ColoringStrategy.values()) {
+                    final Coloring coloring = strategy.color(component);
+                    assertProper(component, coloring);
+                    assertTrue(coloring.numberOfColors() >= exact.numberOfColors());
+                    if (coloring.isOptimal()) {
+                        assertEquals(exact.numberOfColors(), coloring.numberOfColors());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHeuristicOnBipartiteGraphIsProvenOptimal() {
+        final Graph graph = new Graph();
+        final Vertex[] vertices = new Vertex[8];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = graph.getVertex(graph.createVertex(new CanvasPosition(0, 0)));
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            graph.addConnection(vertices[i], vertices[(i + 1) % vertices.length]);
+            graph.addConnection(vertices[(i + 1) % vertices.length], vertices[i]);
+        }
+
+        final CompactGraph snapshot = graph.snapshot();
+        final ComponentGraph component = new ComponentGraph(snapshot,
+                ConnectedComponent.find(snapshot, 0).getIndices());
+        final Coloring coloring = ColoringStrategy.DSATUR.color(component);
+        assertEquals(2, coloring.numberOfColors());
+        assertTrue(coloring.isOptimal());
+    }
+
+    private static void assertProper(ComponentGraph component, Coloring coloring) {
+        for (int v = 0; v < component.size(); v++) {
+            assertTrue(coloring.getColor(v) >= 0);
+            for (int i = component.neighborsStart(v); i < component.neighborsEnd(v); i++) {
+                assertNotEquals(coloring.getColor(v), coloring.getColor(component.neighbor(i)));
+            }
+        }
+    }
+}
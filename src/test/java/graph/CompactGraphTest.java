@@ -0,0 +1,102 @@
+package graph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("JavaDoc")
+public class CompactGraphTest {
+
+    private Graph graph;
+    private Vertex vertex1;
+    private Vertex vertex2;
+    private Vertex vertex3;
+    private Vertex vertex4;
+
+    @Before
+    public void init() {
+        graph = new Graph();
+
+        vertex1 = createVertex();
+        vertex2 = createVertex();
+        vertex3 = createVertex();
+        vertex4 = createVertex();
+
+        graph.addConnection(vertex1, vertex2);
+        graph.addConnection(vertex2, vertex1);
+        graph.addConnection(vertex1, vertex3);
+    }
+
+    @Test
+    public void testSnapshotStructure() {
+        final CompactGraph snapshot = graph.snapshot();
+        assertEquals(4, snapshot.numberOfVertices());
+        assertEquals(3, snapshot.numberOfConnections());
+
+        final int index1 = snapshot.indexOf(vertex1);
+        final int index2 = snapshot.indexOf(vertex2);
+        final int index3 = snapshot.indexOf(vertex3);
+        assertSame(vertex1, snapshot.getVertex(index1));
+        assertEquals(2, snapshot.degree(index1));
+        assertEquals(1, snapshot.degree(index2));
+        assertEquals(0, snapshot.degree(index3));
+
+        assertTrue(snapshot.connected(index1, index3));
+        assertFalse(snapshot.connected(index3, index1));
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        final CompactGraph snapshot = graph.snapshot();
+        graph.removeVertex(vertex1);
+
+        // The snapshot still reflects the graph as it was when it was taken
+        assertEquals(4, snapshot.numberOfVertices());
+        assertEquals(3, snapshot.numberOfConnections());
+        assertEquals(-1, graph.snapshot().indexOf(vertex1));
+    }
+
+    @Test
+    public void testConnectedComponents() {
+        final CompactGraph snapshot = graph.snapshot();
+        final List<ConnectedComponent> components = ConnectedComponent.findAll(snapshot);
+        assertEquals(2, components.size());
+
+        final ConnectedComponent component = ConnectedComponent.find(snapshot,
+                snapshot.indexOf(vertex2));
+        assertEquals(3, component.size());
+        assertTrue(component.containsVertex(vertex3));
+        assertFalse(component.containsVertex(vertex4));
+        assertEquals(2, component.getDegree());
+    }
+
+    @Test
+    public void testConnectedComponentsOneWay() {
+        // Vertex 3 is only reached by the connection from vertex 1, which must still join them
+        final CompactGraph snapshot = graph.snapshot();
+        final ConnectedComponent component = ConnectedComponent.find(snapshot,
+                snapshot.indexOf(vertex3));
+        assertEquals(3, component.size());
+        assertTrue(component.containsVertex(vertex1));
+        assertTrue(component.containsVertex(vertex2));
+
+        final int index3 = snapshot.indexOf(vertex3);
+        assertEquals(1, snapshot.sourcesEnd(index3) - snapshot.sourcesStart(index3));
+        assertEquals(snapshot.indexOf(vertex1), snapshot.source(snapshot.sourcesStart(index3)));
+
+        // A single one-way connection makes a connected graph
+        graph.removeVertex(vertex4);
+        assertEquals(1, ConnectedComponent.findAll(graph.snapshot()).size());
+    }
+
+    private Vertex createVertex() {
+        final int id = graph.createVertex(new CanvasPosition(0, 0));
+        return graph.getVertex(id);
+    }
+}
@@ -3,6 +3,10 @@ package graph;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -13,6 +17,7 @@ import static org.junit.Assert.assertTrue;
 @SuppressWarnings("JavaDoc")
 public class ConnectionManagerTest {
 
+    private Graph graph;
     private VertexManager vertexManager;
     private ConnectionManager connectionManager;
 
@@ -21,7 +26,7 @@ public class ConnectionManagerTest {
 
     @Before
     public void init() {
-        Graph graph = new Graph();
+        graph = new Graph();
         vertexManager = graph.getVertexManager();
         connectionManager = graph.getConnectionManager();
 
@@ -29,6 +34,28 @@ public class ConnectionManagerTest {
         end = createVertex();
     }
 
+    @Test
+    public void testVersion() {
+        connectionManager.addConnection(start, end);
+        final long version = connectionManager.getVersion();
+
+        // Swapping one connection for another leaves the number of connections the same
+        connectionManager.removeConnection(start, end);
+        connectionManager.addConnection(end, start);
+        assertEquals(1, connectionManager.numConnections());
+        assertTrue(connectionManager.getVersion() > version);
+
+        // Removing a connection that does not exist changes nothing
+        final long unchanged = connectionManager.getVersion();
+        final long sceneVersion = graph.getSceneVersion();
+        connectionManager.removeConnection(start, end);
+        assertEquals(unchanged, connectionManager.getVersion());
+        assertEquals(sceneVersion, graph.getSceneVersion());
+
+        end.setPosition(new CanvasPosition(100, 100));
+        assertTrue(connectionManager.getVersion() > unchanged);
+    }
+
     @Test
     public void testAddConnection() {
         // Connect start to end
@@ -87,6 +114,12 @@ public class ConnectionManagerTest {
         assertVerticesNotConnected(start, end2);
         assertVerticesNotConnected(end, start);
         assertVerticesConnected(end, end2);
+
+        // The removed vertex should no longer appear as a neighbor
+        assertEquals(1, connectionManager.getNeighbors(end).size());
+        assertTrue(connectionManager.getNeighbors(end).contains(end2));
+        assertTrue(connectionManager.getNeighbors(start).isEmpty());
+        assertTrue(connectionManager.getVertexConnections(start).isEmpty());
     }
 
     @Test
@@ -116,6 +149,59 @@ public class ConnectionManagerTest {
         assertTrue(vertexConnections.contains(new Connection(end2, start)));
     }
 
+    @Test
+    public void testConnectionsNear() {
+        final Random random = new Random(5);
+        final Vertex[] vertices = new Vertex[40];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = createVertex();
+            vertices[i].setPosition(randomPosition(random));
+        }
+        for (int i = 0; i < 100; i++) {
+            connectionManager.addConnection(vertices[random.nextInt(vertices.length)],
+                    vertices[random.nextInt(vertices.length)]);
+        }
+
+        for (int trial = 0; trial < 200; trial++) {
+            // Moved vertices take their connections with them
+            vertices[random.nextInt(vertices.length)].setPosition(randomPosition(random));
+            if (trial % 20 == 0) {
+                connectionManager.removeConnection(
+                        connectionManager.getConnections().iterator().next());
+            }
+
+            final CanvasPosition position = randomPosition(random);
+            final double distance = 5 + random.nextInt(100);
+            final Set<Connection> expected = new HashSet<>();
+            for (final Connection connection : connectionManager.getConnections()) {
+                if (connection.distance(position) < distance) {
+                    expected.add(connection);
+                }
+            }
+            assertEquals(expected, connectionManager.getConnectionsNear(position, distance));
+        }
+    }
+
+    @Test
+    public void testConnectionsInArea() {
+        // A long connection crossing the area with both vertices outside of it is still visible
+        start.setPosition(new CanvasPosition(-1000, 50));
+        end.setPosition(new CanvasPosition(1000, 50));
+        connectionManager.addConnection(start, end);
+        final Vertex other = createVertex();
+        other.setPosition(new CanvasPosition(500, 500));
+        connectionManager.addConnection(end, other);
+
+        final Rectangle area = new Rectangle(0, 0, 200, 100);
+        assertTrue(vertexManager.getVerticesIn(area).isEmpty());
+        assertEquals(Collections.singleton(new Connection(start, end)),
+                connectionManager.getConnectionsIn(area));
+    }
+
+    private static CanvasPosition randomPosition(Random random) {
+        return new CanvasPosition(random.nextInt(1000) - 500, random.nextInt(1000) - 500);
+    }
+
     private void assertVerticesConnected(Vertex v1, Vertex v2) {
         assertTrue(connectionManager.verticesConnected(v1, v2));
     }
@@ -0,0 +1,87 @@
+package graph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings("JavaDoc")
+public class ConnectionVisualizerTest {
+    private Graph graph;
+    private ConnectionVisualizer visualizer;
+    private BufferedImage image;
+    private Graphics2D g;
+    private Vertex a;
+    private Vertex c;
+    private Vertex d;
+
+    @Before
+    public void init() {
+        graph = new Graph();
+        visualizer = new ConnectionVisualizer(graph.getConnectionManager());
+        image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+
+        // A connection going both ways and one going a single way
+        a = createVertex(10, 10);
+        final Vertex b = createVertex(90, 10);
+        c = createVertex(10, 90);
+        d = createVertex(90, 90);
+        graph.addConnection(a, b);
+        graph.addConnection(b, a);
+        graph.addConnection(c, d);
+    }
+
+    @Test
+    public void testDrawConnections() {
+        visualizer.drawConnections(g, 0, 0, null);
+
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(50, 10));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(50, 90));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(50, 30));
+    }
+
+    @Test
+    public void testDrawConnectionsAfterChange() {
+        visualizer.drawConnections(g, 0, 0, null);
+
+        // Moving a connection to another place keeps the number of connections the same
+        graph.removeConnection(new Connection(c, d));
+        graph.addConnection(c, a);
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, 100, 100);
+        visualizer.drawConnections(g, 0, 0, null);
+
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(50, 90));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(10, 50));
+    }
+
+    @Test
+    public void testDrawConnectionsInArea() {
+        // Only the connections near the visible area are drawn, shifted by the canvas
+        visualizer.drawConnections(g, 0, 5, new Rectangle(0, 0, 100, 20));
+
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(50, 15));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(50, 95));
+    }
+
+    @Test
+    public void testDrawSelectedConnections() {
+        final Connection connection = new Connection(c, d);
+        ConnectionVisualizer.drawSelectedConnections(g, 0, 0,
+                Collections.singletonList(connection));
+
+        assertEquals(Color.RED.getRGB(), image.getRGB(50, 90));
+        assertEquals(Color.BLACK.getRGB(), image.getRGB(50, 10));
+    }
+
+    private Vertex createVertex(int x, int y) {
+        return graph.getVertex(graph.createVertex(new CanvasPosition(x, y)));
+    }
+}
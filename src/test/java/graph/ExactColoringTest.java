@@ -0,0 +1,181 @@
+package graph;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("JavaDoc")
+public class ExactColoringTest {
+
+    @Test
+    public void testCompleteGraph() {
+        final Graph graph = new Graph();
+        final Vertex[] vertices = createVertices(graph, 6);
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                connect(graph, vertices[i], vertices[j]);
+            }
+        }
+
+        assertOptimal(component(graph), 6);
+    }
+
+    @Test
+    public void testOddCycle() {
+        final Graph graph = new Graph();
+        final Vertex[] vertices = createVertices(graph, 7);
+        for (int i = 0; i < vertices.length; i++) {
+            connect(graph, vertices[i], vertices[(i + 1) % vertices.length]);
+        }
+
+        assertOptimal(component(graph), 3);
+    }
+
+    @Test
+    public void testMatchesBruteForceOnSmallGraphs() {
+        final Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            final Graph graph = randomGraph(random, 2 + random.nextInt(9), random.nextDouble());
+            for (final ConnectedComponent connectedComponent : ConnectedComponent.findAll(
+                    graph.snapshot())) {
+                final ComponentGraph component = new ComponentGraph(graph.snapshot(),
+                        connectedComponent.getIndices());
+                assertOptimal(component, bruteForceChromaticNumber(component));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelSearchMatchesSequentialSearch() {
+        final Random random = new Random(11);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int trial = 0; trial < 20; trial++) {
+                final ComponentGraph component = component(randomGraph(random, 40, 0.5));
+                final Coloring sequential = ExactColoring.color(component);
+                final Coloring parallel = pool.invoke(ForkJoinTask.adapt(
+                        () -> ExactColoring.color(component)));
+                assertProper(component, parallel);
+                assertTrue(sequential.isOptimal() && parallel.isOptimal());
+                assertEquals(sequential.numberOfColors(), parallel.numberOfColors());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testLargeComponentFinishes() {
+        // Vertices connected to every vertex close by, much like graphs drawn in the editor
+        final Random random = new Random(7);
+        final Graph graph = new Graph();
+        final Vertex[] vertices = new Vertex[800];
+        for (int i = 0; i < vertices.length; i++) {
+            final CanvasPosition position = new CanvasPosition(random.nextInt(1000),
+                    random.nextInt(1000));
+            vertices[i] = graph.getVertex(graph.createVertex(position));
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                if (vertices[i].distance(new CanvasPosition(vertices[j].getX(),
+                        vertices[j].getY())) < 50) {
+                    connect(graph, vertices[i], vertices[j]);
+                }
+            }
+        }
+
+        final CompactGraph snapshot = graph.snapshot();
+        for (final ConnectedComponent connectedComponent : ConnectedComponent.findAll(snapshot)) {
+            final ComponentGraph component = new ComponentGraph(snapshot,
+                    connectedComponent.getIndices());
+            final Coloring coloring = ExactColoring.color(component);
+            assertTrue(coloring.isOptimal());
+            assertProper(component, coloring);
+            assertTrue(coloring.numberOfColors() <= ExactColoring.numberOfColors(
+                    DsaturColoring.color(component)));
+        }
+    }
+
+    private static void assertOptimal(ComponentGraph component, int chromaticNumber) {
+        final Coloring coloring = ExactColoring.color(component);
+        assertProper(component, coloring);
+        assertTrue(coloring.isOptimal());
+        assertEquals(chromaticNumber, coloring.numberOfColors());
+    }
+
+    private static void assertProper(ComponentGraph component, Coloring coloring) {
+        for (int v = 0; v < component.size(); v++) {
+            assertTrue(coloring.getColor(v) >= 0);
+            for (int i = component.neighborsStart(v); i < component.neighborsEnd(v); i++) {
+                assertNotEquals(coloring.getColor(v), coloring.getColor(component.neighbor(i)));
+            }
+        }
+    }
+
+    private static int bruteForceChromaticNumber(ComponentGraph component) {
+        for (int k = 1; ; k++) {
+            if (colorable(component, new int[component.size()], 0, k)) {
+                return k;
+            }
+        }
+    }
+
+    private static boolean colorable(ComponentGraph component, int[] colors, int v, int k) {
+        if (v == component.size()) {
+            return true;
+        }
+        for (int color = 0; color < k; color++) {
+            boolean available = true;
+            for (int u = 0; u < v && available; u++) {
+                available = colors[u] != color || !component.adjacent(u, v);
+            }
+            if (available) {
+                colors[v] = color;
+                if (colorable(component, colors, v + 1, k)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Graph randomGraph(Random random, int numVertices, double density) {
+        final Graph graph = new Graph();
+        final Vertex[] vertices = createVertices(graph, numVertices);
+        for (int i = 0; i < numVertices; i++) {
+            for (int j = i + 1; j < numVertices; j++) {
+                if (random.nextDouble() < density) {
+                    connect(graph, vertices[i], vertices[j]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static ComponentGraph component(Graph graph) {
+        final CompactGraph snapshot = graph.snapshot();
+        final List<ConnectedComponent> components = ConnectedComponent.findAll(snapshot);
+        assertEquals(1, components.size());
+        return new ComponentGraph(snapshot, components.get(0).getIndices());
+    }
+
+    private static Vertex[] createVertices(Graph graph, int numVertices) {
+        final Vertex[] vertices = new Vertex[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            vertices[i] = graph.getVertex(graph.createVertex(new CanvasPosition(0, 0)));
+        }
+        return vertices;
+    }
+
+    private static void connect(Graph graph, Vertex start, Vertex end) {
+        graph.addConnection(start, end);
+        graph.addConnection(end, start);
+    }
+}
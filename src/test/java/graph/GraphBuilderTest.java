@@ -0,0 +1,52 @@
+package graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("JavaDoc")
+public class GraphBuilderTest {
+
+    @Test
+    public void testBuild() {
+        final Graph graph = new GraphBuilder()
+                .addVertex(3, 10, 20)
+                .addVertex(7, 30, 40)
+                .addVertex(9, 50, 60)
+                .addConnection(3, 7)
+                .addConnection(7, 3)
+                .addConnection(7, 9)
+                .build();
+
+        assertEquals(3, graph.numberOfVertices());
+        assertEquals(3, graph.numberOfConnections());
+        assertEquals(30, graph.getVertex(7).getX());
+        assertEquals(40, graph.getVertex(7).getY());
+        assertTrue(graph.getVertex(7).getNeighbors().contains(graph.getVertex(9)));
+        assertEquals(2, graph.getVertex(7).getDegree());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testConnectionToMissingVertex() {
+        new GraphBuilder().addVertex(0, 0, 0).addConnection(0, 1).build();
+    }
+
+    @Test(timeout = 5000)
+    public void testLargeGraph() {
+        final int numVertices = 50000;
+        final GraphBuilder builder = new GraphBuilder(numVertices, numVertices * 4);
+        for (int i = 0; i < numVertices; i++) {
+            builder.addVertex(i, i % 1000, i / 1000);
+        }
+        for (int i = 0; i < numVertices; i++) {
+            builder.addConnection(i, (i + 1) % numVertices);
+            builder.addConnection((i + 1) % numVertices, i);
+        }
+
+        final Graph graph = builder.build();
+
+        assertEquals(numVertices, graph.numberOfVertices());
+        assertEquals(numVertices * 2, graph.numberOfConnections());
+    }
+}
@@ -0,0 +1,57 @@
+package graph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@SuppressWarnings("JavaDoc")
+public class LabelCacheTest {
+
+    private LabelCache labelCache;
+    private Graphics2D g;
+
+    @Before
+    public void init() {
+        labelCache = new LabelCache(new Font("Dialog", Font.PLAIN, 10));
+        g = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+
+    @Test
+    public void testLabelsAreReused() {
+        final LabelCache.Label label = labelCache.get(g, 17);
+
+        assertSame(label, labelCache.get(g, 17));
+        assertNotSame(label, labelCache.get(g, 71));
+        label.drawCentered(g, 0, 0, 20, 20);
+    }
+
+    @Test
+    public void testLabelsAreLaidOutAgainForDifferentRendering() {
+        final LabelCache.Label label = labelCache.get(g, 17);
+
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        assertNotSame(label, labelCache.get(g, 17));
+    }
+
+    @Test
+    public void testLabelsAreKeptForEveryRendering() {
+        final Graphics2D antialiased = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB)
+                .createGraphics();
+        antialiased.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        // Alternating between two ways of rendering keeps the labels of both
+        final LabelCache.Label label = labelCache.get(g, 17);
+        final LabelCache.Label antialiasedLabel = labelCache.get(antialiased, 17);
+        assertSame(label, labelCache.get(g, 17));
+        assertSame(antialiasedLabel, labelCache.get(antialiased, 17));
+    }
+}
@@ -0,0 +1,186 @@
+package graph;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("JavaDoc")
+public class PropertyManagerTest {
+
+    private Graph graph;
+
+    @Before
+    public void init() {
+        graph = new Graph();
+    }
+
+    @Test
+    public void testCompleteGraphCycles() {
+        final Vertex[] vertices = createVertices(6);
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                connect(vertices[i], vertices[j]);
+            }
+        }
+
+        final GraphProperties properties = calculate(CycleMode.COUNT, 0);
+
+        // Cycles on the same vertices in a different order are different cycles
+        assertEquals(20 + 45 + 72 + 60, properties.numCycles());
+        assertEquals(3, properties.getGirth());
+        assertTrue(properties.isComplete());
+    }
+
+    @Test
+    public void testCycleModes() {
+        final Vertex[] vertices = createVertices(5);
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                connect(vertices[i], vertices[j]);
+            }
+        }
+
+        final GraphProperties enumerated = calculate(CycleMode.ENUMERATE, 0);
+        assertEquals(37, enumerated.numCycles());
+        assertEquals(37, enumerated.getCycles().size());
+        assertTrue(enumerated.isCycleCountExact());
+
+        final GraphProperties counted = calculate(CycleMode.COUNT, 0);
+        assertEquals(37, counted.numCycles());
+        assertTrue(counted.getCycles().isEmpty());
+
+        final GraphProperties bounded = calculate(CycleMode.BOUNDED, 10);
+        assertEquals(10, bounded.numCycles());
+        assertFalse(bounded.isCycleCountExact());
+    }
+
+    @Test
+    public void testCycleLimitBoundary() {
+        final Vertex[] vertices = createVertices(5);
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                connect(vertices[i], vertices[j]);
+            }
+        }
+
+        // Reaching the limit exactly still counts every cycle
+        final GraphProperties atLimit = calculate(CycleMode.BOUNDED, 37);
+        assertEquals(37, atLimit.numCycles());
+        assertTrue(atLimit.isCycleCountExact());
+
+        final GraphProperties belowLimit = calculate(CycleMode.BOUNDED, 36);
+        assertEquals(36, belowLimit.numCycles());
+        assertFalse(belowLimit.isCycleCountExact());
+    }
+
+    @Test
+    public void testTreeHasNoCycles() {
+        final Vertex[] vertices = createVertices(7);
+        for (int i = 1; i < vertices.length; i++) {
+            connect(vertices[(i - 1) / 2], vertices[i]);
+        }
+
+        final GraphProperties properties = calculate(CycleMode.COUNT, 0);
+
+        assertEquals(0, properties.numCycles());
+        assertEquals(0, properties.getGirth());
+        assertTrue(properties.isTree());
+    }
+
+    @Test
+    public void testMatchesBruteForceOnSmallGraphs() {
+        final Random random = new Random(3);
+        for (int trial = 0; trial < 100; trial++) {
+            init();
+            final Vertex[] vertices = createVertices(2 + random.nextInt(8));
+            final double density = random.nextDouble();
+            final boolean[][] adjacent = new boolean[vertices.length][vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                for (int j = i + 1; j < vertices.length; j++) {
+                    if (random.nextDouble() < density) {
+                        connect(vertices[i], vertices[j]);
+                        adjacent[i][j] = adjacent[j][i] = true;
+                    }
+                }
+            }
+
+            final GraphProperties properties = calculate(CycleMode.ENUMERATE, 0);
+
+            int expected = 0;
+            for (int start = 0; start < vertices.length; start++) {
+                final boolean[] onPath = new boolean[vertices.length];
+                onPath[start] = true;
+                for (int second = start + 1; second < vertices.length; second++) {
+                    if (adjacent[start][second]) {
+                        onPath[second] = true;
+                        expected += countCycles(adjacent, onPath, start, second, second, 2);
+                        onPath[second] = false;
+                    }
+                }
+            }
+            assertEquals(expected, properties.numCycles());
+
+            int girth = 0;
+            for (final Cycle cycle : properties.getCycles()) {
+                if (girth == 0 || cycle.length() < girth) {
+                    girth = cycle.length();
+                }
+            }
+            assertEquals(girth, properties.getGirth());
+        }
+    }
+
+    @Test
+    public void testBipartiteOneWay() {
+        // A path of one-way connections is bipartite
+        final Vertex[] vertices = createVertices(3);
+        graph.addConnection(vertices[1], vertices[0]);
+        graph.addConnection(vertices[1], vertices[2]);
+        assertTrue(calculate(CycleMode.COUNT, 0).isBipartite());
+
+        // An odd cycle is not, even when each of its connections only goes one way
+        graph.addConnection(vertices[2], vertices[0]);
+        assertFalse(calculate(CycleMode.COUNT, 0).isBipartite());
+    }
+
+    private static int countCycles(boolean[][] adjacent, boolean[] onPath, int start, int second,
+            int current, int length) {
+        int count = 0;
+        for (int next = start + 1; next < adjacent.length; next++) {
+            if (adjacent[current][next] && !onPath[next]) {
+                if (length >= 2 && next > second && adjacent[next][start]) {
+                    count++;
+                }
+                onPath[next] = true;
+                count += countCycles(adjacent, onPath, start, second, next, length + 1);
+                onPath[next] = false;
+            }
+        }
+        return count;
+    }
+
+    private GraphProperties calculate(CycleMode mode, int limit) {
+        final CompactGraph snapshot = graph.snapshot();
+        final ComponentGraph undirected = PropertyManager.undirected(snapshot);
+        return PropertyManager.calculateCycles(undirected,
+                PropertyManager.calculate(snapshot, undirected), mode, limit, () -> false);
+    }
+
+    private Vertex[] createVertices(int numVertices) {
+        final Vertex[] vertices = new Vertex[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            vertices[i] = graph.getVertex(graph.createVertex(new CanvasPosition(i, i)));
+        }
+        return vertices;
+    }
+
+    private void connect(Vertex start, Vertex end) {
+        graph.addConnection(start, end);
+        graph.addConnection(end, start);
+    }
+}
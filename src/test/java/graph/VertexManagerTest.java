@@ -3,11 +3,17 @@ package graph;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("JavaDoc")
 public class VertexManagerTest {
@@ -22,6 +28,22 @@ public class VertexManagerTest {
         connectionManager = graph.getConnectionManager();
     }
 
+    @Test
+    public void testVersion() {
+        final int id = vertexManager.createVertex(new CanvasPosition(0, 0));
+        final long version = vertexManager.getVersion();
+
+        // Replacing a vertex leaves the number of vertices the same
+        vertexManager.removeVertex(id);
+        vertexManager.createVertex(new CanvasPosition(5, 5));
+        assertEquals(1, vertexManager.numberOfVertices());
+        assertTrue(vertexManager.getVersion() > version);
+
+        final long unchanged = vertexManager.getVersion();
+        vertexManager.removeVertex(id);
+        assertEquals(unchanged, vertexManager.getVersion());
+    }
+
     @Test
     public void testVertexCreationNoID() {
         final int vertexID1 = vertexManager.createVertex(new CanvasPosition(0, 0));
@@ -82,4 +104,83 @@ public class VertexManagerTest {
         assertEquals(2, vertexManager.numberOfVertices());
         assertEquals(0, connectionManager.numConnections());
     }
+
+    @Test
+    public void testVerticesAtPosition() {
+        final Vertex vertex1 = vertexManager.getVertex(
+                vertexManager.createVertex(new CanvasPosition(30, 30)));
+        final Vertex vertex2 = vertexManager.getVertex(
+                vertexManager.createVertex(new CanvasPosition(-100, 5)));
+
+        // Positions near the edge of a vertex lie in a neighboring cell of the grid
+        assertEquals(Collections.singletonList(vertex1),
+                vertexManager.getVerticesAt(new CanvasPosition(38, 34)));
+        assertEquals(Collections.singletonList(vertex2),
+                vertexManager.getVerticesAt(new CanvasPosition(-95, -2)));
+        assertTrue(vertexManager.getVerticesAt(new CanvasPosition(41, 30)).isEmpty());
+
+        // Moved vertices are found at their new position only
+        vertex1.setPosition(new CanvasPosition(200, 200));
+        assertTrue(vertexManager.getVerticesAt(new CanvasPosition(30, 30)).isEmpty());
+        assertEquals(Collections.singletonList(vertex1),
+                vertexManager.getVerticesAt(new CanvasPosition(195, 205)));
+
+        // Removed and replaced vertices are no longer found
+        vertexManager.removeVertex(vertex2);
+        assertTrue(vertexManager.getVerticesAt(new CanvasPosition(-100, 5)).isEmpty());
+        vertexManager.createVertex(vertex1.getID(), new CanvasPosition(0, 0));
+        assertTrue(vertexManager.getVerticesAt(new CanvasPosition(200, 200)).isEmpty());
+    }
+
+    @Test
+    public void testNearestVertex() {
+        final Vertex vertex1 = vertexManager.getVertex(
+                vertexManager.createVertex(new CanvasPosition(0, 0)));
+        final Vertex vertex2 = vertexManager.getVertex(
+                vertexManager.createVertex(new CanvasPosition(60, 0)));
+
+        assertSame(vertex1, vertexManager.getNearestVertex(new CanvasPosition(25, 0), 30, null));
+        assertSame(vertex2, vertexManager.getNearestVertex(new CanvasPosition(35, 0), 30, null));
+        assertSame(vertex2,
+                vertexManager.getNearestVertex(new CanvasPosition(25, 0), 40, vertex1));
+        assertNull(vertexManager.getNearestVertex(new CanvasPosition(30, 50), 30, null));
+    }
+
+    @Test
+    public void testQueriesMatchBruteForce() {
+        final Random random = new Random(7);
+        final Vertex[] vertices = new Vertex[200];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = vertexManager.getVertex(vertexManager.createVertex(
+                    new CanvasPosition(random.nextInt(600) - 300, random.nextInt(600) - 300)));
+        }
+
+        for (int trial = 0; trial < 200; trial++) {
+            final CanvasPosition position =
+                    new CanvasPosition(random.nextInt(600) - 300, random.nextInt(600) - 300);
+            final double distance = random.nextInt(80);
+            final Vertex excluded = vertices[random.nextInt(vertices.length)];
+
+            final Set<Vertex> within = new HashSet<>();
+            Vertex nearest = null;
+            for (final Vertex vertex : vertices) {
+                if (vertex.distance(position) < distance) {
+                    within.add(vertex);
+                    if (vertex != excluded && (nearest == null
+                            || vertex.distance(position) < nearest.distance(position))) {
+                        nearest = vertex;
+                    }
+                }
+            }
+
+            assertEquals(within,
+                    new HashSet<>(vertexManager.getVerticesWithin(position, distance)));
+            final Vertex found = vertexManager.getNearestVertex(position, distance, excluded);
+            if (nearest == null) {
+                assertNull(found);
+            } else {
+                assertEquals(nearest.distance(position), found.distance(position), 0);
+            }
+        }
+    }
 }
@@ -5,14 +5,18 @@ import mockit.Mocked;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 @SuppressWarnings({"JavaDoc", "TestMethodWithIncorrectSignature"})
 public class VertexTest {
+    private Graph graph;
     private VertexManager vertexManager;
     private ConnectionManager connectionManager;
     private Vertex vertex1;
@@ -22,7 +26,7 @@ public class VertexTest {
 
     @Before
     public void init() {
-        final Graph graph = new Graph();
+        graph = new Graph();
         vertexManager = graph.getVertexManager();
         connectionManager = graph.getConnectionManager();
 
@@ -81,6 +85,42 @@ public class VertexTest {
         vertex1.removeConnection(vertex2);
     }
 
+    @Test
+    public void testSceneVersion() {
+        long version = graph.getSceneVersion();
+
+        // Selecting is drawn on top of the scene so it leaves the scene alone
+        vertex1.select();
+        assertEquals(version, graph.getSceneVersion());
+
+        vertex1.setPosition(new CanvasPosition(5, 5));
+        assertNotEquals(version, graph.getSceneVersion());
+
+        version = graph.getSceneVersion();
+        vertex1.setColor(2);
+        assertNotEquals(version, graph.getSceneVersion());
+
+        version = graph.getSceneVersion();
+        vertex1.setColor(2);
+        assertEquals(version, graph.getSceneVersion());
+    }
+
+    @Test
+    public void testDrawingLeavesSceneVersion() {
+        // Without connections the vertices are colored right away instead of in the background
+        final Graph unconnected = new Graph();
+        unconnected.createVertex(new CanvasPosition(10, 10));
+        unconnected.createVertex(new CanvasPosition(40, 40));
+        unconnected.checkForStructuralChanges();
+        final long version = unconnected.getSceneVersion();
+
+        // Building the caches of the scene while drawing must not ask for another rendering
+        final Graphics2D g = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB)
+                .createGraphics();
+        unconnected.drawScene(g, 0, 0);
+        assertEquals(version, unconnected.getSceneVersion());
+    }
+
     private Vertex createVertex() {
         final int id = vertexManager.createVertex(new CanvasPosition(0, 0));
         return vertexManager.getVertex(id);
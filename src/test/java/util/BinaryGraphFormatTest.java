@@ -0,0 +1,52 @@
+package util;
+
+import graph.GraphBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+@SuppressWarnings("JavaDoc")
+public class BinaryGraphFormatTest {
+
+    private Path file;
+    private byte[] truncated;
+
+    @Before
+    public void init() throws IOException {
+        file = Files.createTempFile("graph", GraphFormat.BINARY.getExtension());
+        GraphIO.write(new GraphBuilder().addVertex(1, 0, 0).addVertex(2, 5, 5)
+                .addConnection(1, 2).addConnection(2, 1).build(), file);
+        final byte[] bytes = Files.readAllBytes(file);
+        truncated = Arrays.copyOf(bytes, bytes.length - 4);
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test(expected = MalformedGraphException.class)
+    public void testRejectsTruncatedFile() throws Exception {
+        Files.write(file, truncated);
+
+        BinaryGraphFormat.read(file);
+    }
+
+    @Test(expected = MalformedGraphException.class)
+    public void testRejectsTruncatedStream() throws Exception {
+        BinaryGraphFormat.read(new ByteArrayInputStream(truncated));
+    }
+
+    @Test(expected = MalformedGraphException.class)
+    public void testRejectsOtherFiles() throws Exception {
+        Files.write(file, "2\n1 0 0\n2 5 5\n1 2\n2 1\n".getBytes("US-ASCII"));
+
+        BinaryGraphFormat.read(file);
+    }
+}
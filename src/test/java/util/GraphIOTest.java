@@ -0,0 +1,77 @@
+package util;
+
+import graph.Graph;
+import graph.GraphBuilder;
+import graph.Vertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("JavaDoc")
+public class GraphIOTest {
+
+    private Graph graph;
+
+    @Before
+    public void init() {
+        graph = new GraphBuilder()
+                .addVertex(3, 10, -20)
+                .addVertex(8, 30, 40)
+                .addVertex(5, 50, 60)
+                .addVertex(1, 70, 80)
+                .addConnection(3, 8).addConnection(8, 3)
+                .addConnection(8, 5).addConnection(5, 8)
+                .build();
+    }
+
+    @Test
+    public void testFormatFromExtension() {
+        assertEquals(GraphFormat.BINARY, GraphFormat.of(Paths.get("dir", "large.bgraph")));
+        assertEquals(GraphFormat.TEXT, GraphFormat.of(Paths.get("dir", "small.graph")));
+        assertEquals(GraphFormat.TEXT, GraphFormat.of(Paths.get("notes.txt")));
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws Exception {
+        for (final GraphFormat format : GraphFormat.values()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            GraphIO.write(graph, output, format);
+            assertSameGraph(GraphIO.read(new ByteArrayInputStream(output.toByteArray()), format));
+        }
+    }
+
+    @Test
+    public void testFileRoundTrip() throws Exception {
+        for (final GraphFormat format : GraphFormat.values()) {
+            final Path file = Files.createTempFile("graph", format.getExtension());
+            try {
+                GraphIO.write(graph, file);
+                assertSameGraph(GraphIO.read(file));
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void assertSameGraph(Graph loaded) {
+        assertEquals(graph.numberOfVertices(), loaded.numberOfVertices());
+        assertEquals(graph.numberOfConnections(), loaded.numberOfConnections());
+        for (final Vertex vertex : graph.getVertices()) {
+            final Vertex copy = loaded.getVertex(vertex.getID());
+            assertEquals(vertex.getX(), copy.getX());
+            assertEquals(vertex.getY(), copy.getY());
+            assertEquals(vertex.getNeighbors().size(), copy.getNeighbors().size());
+            for (final Vertex neighbor : vertex.getNeighbors()) {
+                assertTrue(copy.getNeighbors().contains(loaded.getVertex(neighbor.getID())));
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package util;
+
+import graph.Graph;
+import graph.Vertex;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings("JavaDoc")
+public class GraphParserTest {
+
+    @Test
+    public void testParsesSavedGraph() throws Exception {
+        final Graph graph = parse("# Lines beginning with '#' are ignored\n"
+                + "3\n"
+                + "# ID X Y\n"
+                + "4 10 -20\n"
+                + "7 30 40 \r\n"
+                + "\n"
+                + "9\t50 60\n"
+                + "# ID : connectionID connectionID ...\n"
+                + "4 7 9 \n"
+                + "7 4\n"
+                + "9 4");
+
+        assertEquals(3, graph.numberOfVertices());
+        assertEquals(4, graph.numberOfConnections());
+        final Vertex vertex = graph.getVertex(4);
+        assertEquals(10, vertex.getX());
+        assertEquals(-20, vertex.getY());
+        assertTrue(vertex.getNeighbors().contains(graph.getVertex(9)));
+    }
+
+    @Test
+    public void testReportsPositionOfInvalidNumber() throws Exception {
+        final MalformedGraphException exception = parseInvalid("2\n1 0 0\n2 0 x0\n");
+
+        assertEquals(3, exception.getLine());
+        assertEquals(5, exception.getColumn());
+    }
+
+    @Test
+    public void testRejectsConnectionToMissingVertex() throws Exception {
+        final MalformedGraphException exception = parseInvalid("2\n1 0 0\n2 0 0\n1 2 3\n");
+
+        assertEquals(4, exception.getLine());
+        assertEquals(5, exception.getColumn());
+    }
+
+    @Test
+    public void testRejectsDuplicateVertices() throws Exception {
+        parseInvalid("2\n1 0 0\n1 5 5\n");
+    }
+
+    private static Graph parse(String text) throws IOException, MalformedGraphException {
+        return GraphParser.parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static MalformedGraphException parseInvalid(String text) throws IOException {
+        try {
+            parse(text);
+        } catch (MalformedGraphException e) {
+            return e;
+        }
+        fail("Parsed invalid graph");
+        return null;
+    }
+}